@@ -3,9 +3,11 @@ package ch.admin.bit.jeap.jme.cdct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.core.env.Environment;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @Slf4j
 public class ConsumerApplication {
 
@@ -0,0 +1,73 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Immutable Bloom filter of string ids. {@link #mightContain(String)} never answers <code>false</code> for an id the
+ * filter was built from, and answers <code>true</code> for other ids with about the false positive rate it was sized
+ * for.
+ */
+final class BloomFilter {
+
+    private final long[] bits;
+    private final int bitCount;
+    private final int hashCount;
+
+    private BloomFilter(int bitCount, int hashCount) {
+        this.bits = new long[(bitCount + 63) / 64];
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+    }
+
+    static <T> BloomFilter of(Collection<T> elements, Function<T, String> idOf, double falsePositiveRate) {
+        int expected = Math.max(1, elements.size());
+        double optimalBits = -expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        int bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, Math.ceil(optimalBits)));
+        int hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+        BloomFilter filter = new BloomFilter(bitCount, hashCount);
+        elements.forEach(element -> filter.put(idOf.apply(element)));
+        return filter;
+    }
+
+    private void put(String id) {
+        long hash = hash(id);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(String id) {
+        long hash = hash(id);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 64-bit FNV-1a over the characters of the id, finalized with the MurmurHash3 mixer to spread the bits of both
+     * halves, which are used as the two base hashes of the double hashing scheme.
+     */
+    private static long hash(String id) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash ^= id.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
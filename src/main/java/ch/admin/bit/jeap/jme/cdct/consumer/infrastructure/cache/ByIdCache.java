@@ -0,0 +1,81 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.NotFoundException;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for entities looked up by id. Eviction is size-based (Caffeine's W-TinyLFU policy), entries
+ * expire after the configured time to live and are refreshed in the background once they are older than
+ * the configured refresh age, i.e. callers are served the stale entity while it is being revalidated. An entity the
+ * upstream API no longer knows when it is refreshed ({@link NotFoundException}) is removed from the cache, other refresh
+ * failures keep the stale entity until it expires.
+ * <p>
+ * If the cache is disabled, every lookup is passed to the loader.
+ */
+public class ByIdCache<T> {
+
+    private final Function<String, T> loader;
+    private final LoadingCache<String, T> cache;
+    private final long maximumSize;
+
+    public ByIdCache(String name, CacheProperties.Settings settings, Function<String, T> loader, MeterRegistry meterRegistry) {
+        this.loader = loader;
+        this.maximumSize = settings.maximumSize();
+        if (settings.enabled()) {
+            Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                    .maximumSize(settings.maximumSize())
+                    .expireAfterWrite(settings.timeToLive())
+                    .recordStats();
+            if (settings.refreshAfter() != null && settings.refreshAfter().compareTo(settings.timeToLive()) < 0) {
+                builder.refreshAfterWrite(settings.refreshAfter());
+            }
+            this.cache = builder.build(new CacheLoader<>() {
+                @Override
+                public T load(String id) {
+                    return loader.apply(id);
+                }
+
+                @Override
+                public T reload(String id, T oldValue) {
+                    try {
+                        return loader.apply(id);
+                    } catch (NotFoundException e) {
+                        // removes the entry, so that an entity deleted upstream is no longer served
+                        return null;
+                    }
+                }
+            });
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        } else {
+            this.cache = null;
+        }
+    }
+
+    public T get(String id) {
+        if (cache == null) {
+            return loader.apply(id);
+        }
+        return cache.get(id);
+    }
+
+    /**
+     * Puts the given entities into the cache, at most as many as it can hold, so that they need not be loaded.
+     */
+    public void seed(Collection<T> entities, Function<T, String> idOf) {
+        if (cache == null) {
+            return;
+        }
+        entities.stream().limit(maximumSize).forEach(entity -> cache.put(idOf.apply(entity), entity));
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+}
@@ -0,0 +1,27 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the read-through by-id caches in front of the provider's task and user APIs.
+ */
+@ConfigurationProperties(prefix = "gateway.cache")
+public record CacheProperties(@DefaultValue Settings task, @DefaultValue Settings user) {
+
+    /**
+     * @param enabled      Whether entities looked up by id are cached at all
+     * @param timeToLive   How long an entity is served from the cache after it has been fetched
+     * @param refreshAfter Age after which a cached entity is still served, but refreshed in the background
+     *                     (stale-while-revalidate). Must be shorter than the time to live to have an effect.
+     * @param maximumSize  Maximum number of entities kept in the cache
+     */
+    public record Settings(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("5m") Duration timeToLive,
+            @DefaultValue("1m") Duration refreshAfter,
+            @DefaultValue("10000") long maximumSize) {
+    }
+}
@@ -0,0 +1,15 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled     Whether validators (ETag, Last-Modified) of provider responses are remembered and sent with
+ *                    subsequent requests for the same resource
+ * @param maximumSize Maximum number of remembered responses per upstream API
+ */
+@ConfigurationProperties(prefix = "gateway.conditional-requests")
+public record ConditionalRequestProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10000") long maximumSize) {
+}
@@ -0,0 +1,67 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Remembers the validators (ETag, Last-Modified) of provider responses next to their bodies. Subsequent requests for
+ * the same resource are made conditional, and if the provider answers with 304 Not Modified the remembered body is
+ * reused instead of downloading and deserializing it again.
+ * <p>
+ * Responses without validators are not remembered.
+ */
+public class ConditionalResponseCache<T> {
+
+    private final Cache<String, Validated<T>> responses;
+
+    public ConditionalResponseCache(ConditionalRequestProperties properties) {
+        this.responses = properties.enabled() ? Caffeine.newBuilder().maximumSize(properties.maximumSize()).build() : null;
+    }
+
+    /**
+     * @param key      Identifies the requested resource
+     * @param exchange Executes the request, applying the given customizer to the request headers
+     */
+    public T fetch(String key, Function<Consumer<HttpHeaders>, ResponseEntity<T>> exchange) {
+        if (responses == null) {
+            return exchange.apply(headers -> {
+            }).getBody();
+        }
+
+        Validated<T> remembered = responses.getIfPresent(key);
+        ResponseEntity<T> response = exchange.apply(headers -> {
+            if (remembered != null) {
+                remembered.applyTo(headers);
+            }
+        });
+
+        if (remembered != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            return remembered.body();
+        }
+        String eTag = response.getHeaders().getETag();
+        long lastModified = response.getHeaders().getLastModified();
+        if (response.getBody() != null && (eTag != null || lastModified != -1)) {
+            responses.put(key, new Validated<>(response.getBody(), eTag, lastModified));
+        } else {
+            responses.invalidate(key);
+        }
+        return response.getBody();
+    }
+
+    private record Validated<T>(T body, String eTag, long lastModified) {
+
+        void applyTo(HttpHeaders headers) {
+            if (eTag != null) {
+                headers.setIfNoneMatch(eTag);
+            } else {
+                headers.setIfModifiedSince(lastModified);
+            }
+        }
+    }
+}
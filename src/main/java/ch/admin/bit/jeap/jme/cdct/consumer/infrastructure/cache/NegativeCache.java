@@ -0,0 +1,90 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Knows ids the upstream API does not know, so that repeated lookups of missing ids are answered without calling
+ * the API. Ids the API answered with 404 are remembered for a short time to live. Optionally, ids are also checked
+ * against a Bloom filter of the ids of the last collection fetched from the API: ids not in the filter are missing,
+ * unless they were created after the collection was fetched, which is why the filter is only used for a short time.
+ * <p>
+ * Lookups answered as missing are counted as <code>gateway.negative-cache.hits</code> by source.
+ */
+public class NegativeCache {
+
+    private final NegativeCacheProperties.Settings settings;
+    private final Cache<String, Boolean> missingIds;
+    private final Counter cacheHitCounter;
+    private final Counter bloomFilterHitCounter;
+
+    private volatile Snapshot snapshot;
+
+    public NegativeCache(String name, NegativeCacheProperties.Settings settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.missingIds = settings.enabled()
+                ? Caffeine.newBuilder().maximumSize(settings.maximumSize()).expireAfterWrite(settings.timeToLive()).build()
+                : null;
+        this.cacheHitCounter = hitCounter(name, "cache", meterRegistry);
+        this.bloomFilterHitCounter = hitCounter(name, "bloom-filter", meterRegistry);
+    }
+
+    private static Counter hitCounter(String name, String source, MeterRegistry meterRegistry) {
+        return Counter.builder("gateway.negative-cache.hits")
+                .description("Lookups of missing ids answered without calling the upstream API")
+                .tag("cache", name)
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    public boolean isKnownMissing(String id) {
+        if (missingIds == null) {
+            return false;
+        }
+        if (missingIds.getIfPresent(id) != null) {
+            cacheHitCounter.increment();
+            return true;
+        }
+        Snapshot current = snapshot;
+        if (current != null && System.nanoTime() - current.builtAtNanos() < settings.bloomFilterMaxAge().toNanos()
+                && !current.ids().mightContain(id)) {
+            bloomFilterHitCounter.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public void recordMissing(String id) {
+        if (missingIds != null) {
+            missingIds.put(id, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Takes note of the whole collection the upstream API currently holds: remembered ids of its elements are
+     * forgotten, and the Bloom filter is rebuilt from their ids if enabled.
+     */
+    public <T> void recordAll(Collection<T> elements, Function<T, String> idOf) {
+        if (missingIds == null) {
+            return;
+        }
+        if (!missingIds.asMap().isEmpty()) {
+            Set<String> knownIds = HashSet.newHashSet(elements.size());
+            elements.forEach(element -> knownIds.add(idOf.apply(element)));
+            missingIds.asMap().keySet().removeIf(knownIds::contains);
+        }
+        if (settings.bloomFilter()) {
+            snapshot = new Snapshot(BloomFilter.of(elements, idOf, settings.bloomFilterFalsePositiveRate()), System.nanoTime());
+        }
+    }
+
+    private record Snapshot(BloomFilter ids, long builtAtNanos) {
+    }
+}
@@ -0,0 +1,32 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the caches of ids the provider's task and user APIs do not know.
+ */
+@ConfigurationProperties(prefix = "gateway.negative-cache")
+public record NegativeCacheProperties(@DefaultValue Settings task, @DefaultValue Settings user) {
+
+    /**
+     * @param enabled                      Whether ids the provider answered with 404 are remembered
+     * @param timeToLive                   How long such an id is answered with 404 without asking the provider again
+     * @param maximumSize                  Maximum number of remembered ids
+     * @param bloomFilter                  Whether ids are checked against a Bloom filter of the ids of the last
+     *                                     collection fetched from the provider. Ids created after that fetch are
+     *                                     reported as missing until the filter is rebuilt or expires.
+     * @param bloomFilterMaxAge            Age after which the Bloom filter is no longer used
+     * @param bloomFilterFalsePositiveRate Share of missing ids the Bloom filter lets through to the provider
+     */
+    public record Settings(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("30s") Duration timeToLive,
+            @DefaultValue("10000") long maximumSize,
+            @DefaultValue("false") boolean bloomFilter,
+            @DefaultValue("1m") Duration bloomFilterMaxAge,
+            @DefaultValue("0.01") double bloomFilterFalsePositiveRate) {
+    }
+}
@@ -0,0 +1,35 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.Deadline;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.DeadlineExceededException;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Does not send requests to an upstream API once the {@link Deadline} of the request has passed, and reports requests
+ * that timed out because of the deadline as {@link DeadlineExceededException} rather than as a failure of the API.
+ */
+class DeadlineInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        Optional<Deadline> deadline = Deadline.current();
+        if (deadline.isEmpty()) {
+            return execution.execute(request, body);
+        }
+        deadline.get().check();
+        try {
+            return execution.execute(request, body);
+        } catch (IOException e) {
+            if (deadline.get().isExpired()) {
+                throw new DeadlineExceededException("Deadline of the request exceeded while calling " + request.getURI(), e);
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.json.Encoding;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the HTTP transports used to call the provider's task and user APIs. Each API gets its own transport,
+ * so connections to one API cannot be exhausted by calls to the other one.
+ */
+@ConfigurationProperties(prefix = "gateway.http")
+public record HttpTransportProperties(@DefaultValue Settings task, @DefaultValue Settings user) {
+
+    public Settings forUpstream(String upstream) {
+        return switch (upstream) {
+            case "task" -> task;
+            case "user" -> user;
+            default -> throw new IllegalArgumentException("Unknown upstream " + upstream);
+        };
+    }
+
+    /**
+     * @param maxConnections           Maximum number of pooled connections
+     * @param connectTimeout           Timeout for establishing a connection
+     * @param readTimeout              Timeout for waiting for response data
+     * @param connectionRequestTimeout Maximum time to wait for a free connection from the pool
+     * @param idleTimeout              Time after which idle connections are evicted from the pool
+     * @param timeToLive               Maximum lifetime of a pooled connection
+     * @param http2                    Use the JDK HTTP client with HTTP/2 multiplexing instead of the HTTP/1.1
+     *                                 connection pool. The pool size, request and idle timeouts do not apply then.
+     * @param encoding                 Encoding requested from the upstream API. JSON is accepted as well, for providers
+     *                                 not supporting a binary encoding.
+     */
+    public record Settings(
+            @DefaultValue("50") int maxConnections,
+            @DefaultValue("2s") Duration connectTimeout,
+            @DefaultValue("10s") Duration readTimeout,
+            @DefaultValue("2s") Duration connectionRequestTimeout,
+            @DefaultValue("30s") Duration idleTimeout,
+            @DefaultValue("5m") Duration timeToLive,
+            @DefaultValue("false") boolean http2,
+            @DefaultValue("json") Encoding encoding) {
+    }
+}
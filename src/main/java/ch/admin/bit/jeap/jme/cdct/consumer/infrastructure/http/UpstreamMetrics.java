@@ -0,0 +1,169 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Records the calls to one upstream API:
+ * <ul>
+ *     <li><code>gateway.upstream.requests</code>: duration of the whole call by operation, outcome and HTTP status</li>
+ *     <li><code>gateway.upstream.ttfb</code>: time until the response headers have been received</li>
+ *     <li><code>gateway.upstream.deserialization</code>: time from the response headers until the body has been
+ *     read and deserialized</li>
+ *     <li><code>gateway.upstream.payload</code>: size of the response bodies, if the provider sends their length</li>
+ * </ul>
+ * The time spent waiting for a pooled connection is recorded by the connection pool as
+ * <code>gateway.http.pool.acquisition</code>.
+ * <p>
+ * Meters are registered once per tag combination and looked up without allocations on the hot path. Individual meters
+ * can be switched off with <code>management.metrics.enable.&lt;meter&gt;=false</code>.
+ */
+public class UpstreamMetrics implements ClientHttpRequestInterceptor {
+
+    private static final int NO_RESPONSE = 0;
+    private static final int MAX_STATUS = 599;
+    private static final ThreadLocal<Exchange> CURRENT_EXCHANGE = ThreadLocal.withInitial(Exchange::new);
+
+    public enum Operation {
+        GET_BY_ID("getById"),
+        GET_ALL("getAll"),
+        STREAM_ALL("streamAll");
+
+        private final String tag;
+
+        Operation(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final String upstream;
+    private final MeterRegistry meterRegistry;
+    private final Map<Operation, AtomicReferenceArray<Timer>> requestTimers = new EnumMap<>(Operation.class);
+    private final Map<Operation, Timer> deserializationTimers = new EnumMap<>(Operation.class);
+    private final Timer ttfbTimer;
+    private final DistributionSummary payloadSummary;
+
+    UpstreamMetrics(String upstream, MeterRegistry meterRegistry) {
+        this.upstream = upstream;
+        this.meterRegistry = meterRegistry;
+        for (Operation operation : Operation.values()) {
+            requestTimers.put(operation, new AtomicReferenceArray<>(MAX_STATUS + 1));
+            deserializationTimers.put(operation, Timer.builder("gateway.upstream.deserialization")
+                    .description("Time from receiving the response headers until the body has been deserialized")
+                    .tag("upstream", upstream)
+                    .tag("operation", operation.tag)
+                    .register(meterRegistry));
+        }
+        this.ttfbTimer = Timer.builder("gateway.upstream.ttfb")
+                .description("Time until the response headers of the upstream API have been received")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+        this.payloadSummary = DistributionSummary.builder("gateway.upstream.payload")
+                .description("Size of the response bodies of the upstream API")
+                .baseUnit("bytes")
+                .tag("upstream", upstream)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executes and records an upstream call made with a rest client this interceptor is registered with.
+     */
+    public <T> T record(Operation operation, Supplier<T> call) {
+        Exchange exchange = CURRENT_EXCHANGE.get();
+        exchange.reset();
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            recordCall(operation, start, exchange, exchange.status);
+            return result;
+        } catch (RestClientResponseException e) {
+            recordCall(operation, start, exchange, e.getStatusCode().value());
+            throw e;
+        } catch (RuntimeException | Error e) {
+            recordCall(operation, start, exchange, exchange.status);
+            throw e;
+        }
+    }
+
+    private void recordCall(Operation operation, long start, Exchange exchange, int status) {
+        long end = System.nanoTime();
+        requestTimer(operation, status).record(end - start, TimeUnit.NANOSECONDS);
+        if (exchange.headersReceivedAt != 0) {
+            deserializationTimers.get(operation).record(end - exchange.headersReceivedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer requestTimer(Operation operation, int status) {
+        int index = status < 0 || status > MAX_STATUS ? NO_RESPONSE : status;
+        AtomicReferenceArray<Timer> timers = requestTimers.get(operation);
+        Timer timer = timers.get(index);
+        if (timer == null) {
+            timer = Timer.builder("gateway.upstream.requests")
+                    .description("Calls to the upstream API")
+                    .tag("upstream", upstream)
+                    .tag("operation", operation.tag)
+                    .tag("outcome", outcome(index))
+                    .tag("status", index == NO_RESPONSE ? "none" : String.valueOf(index))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            timers.set(index, timer);
+        }
+        return timer;
+    }
+
+    private static String outcome(int status) {
+        if (status == NO_RESPONSE) {
+            return "IO_ERROR";
+        }
+        return switch (status / 100) {
+            case 1 -> "INFORMATIONAL";
+            case 2 -> "SUCCESS";
+            case 3 -> "REDIRECTION";
+            case 4 -> "CLIENT_ERROR";
+            default -> "SERVER_ERROR";
+        };
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        long start = System.nanoTime();
+        ClientHttpResponse response = execution.execute(request, body);
+        long headersReceivedAt = System.nanoTime();
+        ttfbTimer.record(headersReceivedAt - start, TimeUnit.NANOSECONDS);
+        long contentLength = response.getHeaders().getContentLength();
+        if (contentLength >= 0) {
+            payloadSummary.record(contentLength);
+        }
+        Exchange exchange = CURRENT_EXCHANGE.get();
+        exchange.status = response.getStatusCode().value();
+        exchange.headersReceivedAt = headersReceivedAt;
+        return response;
+    }
+
+    /**
+     * State of the current thread's upstream call, reused for all calls of the thread.
+     */
+    private static final class Exchange {
+        private int status;
+        private long headersReceivedAt;
+
+        void reset() {
+            status = NO_RESPONSE;
+            headersReceivedAt = 0;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.json.Encoding;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.token.AccessTokenManager;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.token.TokenProperties;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.Deadline;
+import ch.admin.bit.jeap.security.restclient.JeapOAuth2RestClientBuilderFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Creates the rest clients for the provider's APIs.
+ * <p>
+ * By default, the jEAP OAuth2 rest client obtains access tokens on demand. If the token is managed by the
+ * {@link AccessTokenManager} (<code>gateway.token.managed</code>), all clients share its proactively refreshed token
+ * instead.
+ * <p>
+ * Every upstream API gets its own transport as configured in <code>gateway.http.&lt;upstream&gt;</code>: a pool of
+ * persistent HTTP/1.1 connections, or the JDK HTTP client multiplexing requests over HTTP/2. Its calls are recorded by
+ * the upstream's {@link UpstreamMetrics}.
+ * <p>
+ * Requests made on behalf of a request with a {@link Deadline} are not sent once it has passed. On pooled connections,
+ * their pool and response timeouts are also cut to the time remaining until the deadline.
+ * <p>
+ * An upstream API may be asked for a binary {@link Encoding} instead of JSON (see {@link #accept(String)}).
+ */
+@Component
+@Slf4j
+public class UpstreamRestClients implements DisposableBean {
+
+    private final JeapOAuth2RestClientBuilderFactory jeapOAuth2RestClientBuilderFactory;
+    private final ObjectProvider<RestClient.Builder> restClientBuilderProvider;
+    private final AccessTokenManager accessTokenManager;
+    private final TokenProperties tokenProperties;
+    private final HttpTransportProperties transportProperties;
+    private final MeterRegistry meterRegistry;
+    private final List<AutoCloseable> transports = new CopyOnWriteArrayList<>();
+    private final Map<String, UpstreamMetrics> upstreamMetrics = new ConcurrentHashMap<>();
+    private final DeadlineInterceptor deadlineInterceptor = new DeadlineInterceptor();
+
+    public UpstreamRestClients(JeapOAuth2RestClientBuilderFactory jeapOAuth2RestClientBuilderFactory,
+                               ObjectProvider<RestClient.Builder> restClientBuilderProvider,
+                               ObjectProvider<AccessTokenManager> accessTokenManagerProvider,
+                               TokenProperties tokenProperties,
+                               HttpTransportProperties transportProperties,
+                               MeterRegistry meterRegistry) {
+        this.jeapOAuth2RestClientBuilderFactory = jeapOAuth2RestClientBuilderFactory;
+        this.restClientBuilderProvider = restClientBuilderProvider;
+        this.accessTokenManager = accessTokenManagerProvider.getIfAvailable();
+        this.tokenProperties = tokenProperties;
+        this.transportProperties = transportProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public RestClient.Builder builder(String upstream, String baseUrl) {
+        HttpTransportProperties.Settings settings = transportProperties.forUpstream(upstream);
+        RestClient.Builder builder = authenticatedBuilder()
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory(upstream, settings))
+                .requestInterceptor(metrics(upstream))
+                .requestInterceptor(deadlineInterceptor);
+        HttpMessageConverter<?> binaryConverter = binaryConverter(settings.encoding());
+        if (binaryConverter != null) {
+            builder.messageConverters(converters -> converters.add(binaryConverter));
+        }
+        return builder;
+    }
+
+    private static HttpMessageConverter<?> binaryConverter(Encoding encoding) {
+        return switch (encoding) {
+            case CBOR -> new JacksonCborHttpMessageConverter();
+            case SMILE -> new JacksonSmileHttpMessageConverter();
+            case JSON -> null;
+        };
+    }
+
+    /**
+     * @return the media types to accept from the upstream API: JSON, or its configured binary encoding preferred
+     * over JSON
+     */
+    public MediaType[] accept(String upstream) {
+        Encoding encoding = transportProperties.forUpstream(upstream).encoding();
+        if (encoding == Encoding.JSON) {
+            return new MediaType[]{MediaType.APPLICATION_JSON};
+        }
+        return new MediaType[]{encoding.mediaType(), new MediaType(MediaType.APPLICATION_JSON, Map.of("q", "0.5"))};
+    }
+
+    public UpstreamMetrics metrics(String upstream) {
+        return upstreamMetrics.computeIfAbsent(upstream, name -> new UpstreamMetrics(name, meterRegistry));
+    }
+
+    private RestClient.Builder authenticatedBuilder() {
+        if (accessTokenManager == null) {
+            return jeapOAuth2RestClientBuilderFactory.createForClientRegistryId(tokenProperties.clientRegistrationId());
+        }
+        return restClientBuilderProvider.getIfAvailable(RestClient::builder)
+                .requestInterceptor((request, body, execution) -> {
+                    request.getHeaders().setBearerAuth(accessTokenManager.getToken());
+                    return execution.execute(request, body);
+                });
+    }
+
+    private ClientHttpRequestFactory requestFactory(String upstream, HttpTransportProperties.Settings settings) {
+        if (settings.http2()) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(settings.connectTimeout())
+                    .build();
+            transports.add(httpClient);
+            JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+            requestFactory.setReadTimeout(settings.readTimeout());
+            return requestFactory;
+        }
+
+        Timer acquisitionTimer = Timer.builder("gateway.http.pool.acquisition")
+                .description("Time spent waiting for a connection from the pool")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+        InstrumentedConnectionManager connectionManager = new InstrumentedConnectionManager(acquisitionTimer);
+        connectionManager.setMaxTotal(settings.maxConnections());
+        connectionManager.setDefaultMaxPerRoute(settings.maxConnections());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(settings.connectTimeout()))
+                .setSocketTimeout(Timeout.of(settings.readTimeout()))
+                .setTimeToLive(TimeValue.of(settings.timeToLive()))
+                .build());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, upstream).bindTo(meterRegistry);
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(settings.connectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(settings.readTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(settings.idleTimeout()))
+                .build();
+        transports.add(httpClient);
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setHttpContextFactory((method, uri) -> Deadline.current()
+                .map(deadline -> deadlineContext(settings, deadline.remaining()))
+                .orElse(null));
+        return requestFactory;
+    }
+
+    private static HttpClientContext deadlineContext(HttpTransportProperties.Settings settings, Duration remaining) {
+        // Socket timeouts have millisecond resolution, and a timeout of zero would mean no timeout at all
+        Duration timeout = Duration.ofMillis(Math.max(1, remaining.toMillis()));
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(min(settings.connectionRequestTimeout(), timeout)))
+                .setResponseTimeout(Timeout.of(min(settings.readTimeout(), timeout)))
+                .build());
+        return context;
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    @Override
+    public void destroy() {
+        for (AutoCloseable transport : transports) {
+            try {
+                transport.close();
+            } catch (Exception e) {
+                log.warn("Closing an upstream HTTP transport failed", e);
+            }
+        }
+    }
+}
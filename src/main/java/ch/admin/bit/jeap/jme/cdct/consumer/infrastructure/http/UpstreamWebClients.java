@@ -0,0 +1,128 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.token.AccessTokenManager;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.token.TokenProperties;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.InMemoryReactiveOAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.ReactiveOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.ReactiveOAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryReactiveClientRegistrationRepository;
+import org.springframework.security.oauth2.client.web.reactive.function.client.ServerOAuth2AuthorizedClientExchangeFilterFunction;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Creates the non-blocking web clients for the provider's APIs, the counterpart of {@link UpstreamRestClients}.
+ * <p>
+ * Every upstream API gets its own Reactor Netty connection pool as configured in <code>gateway.http.&lt;upstream&gt;</code>.
+ * Requests are authenticated with the token of the {@link AccessTokenManager} if the token is managed
+ * (<code>gateway.token.managed</code>). Otherwise they are authenticated by Spring Security's reactive OAuth2 client
+ * with the same client registration, which obtains and caches its client credentials token without blocking. A
+ * {@link ReactiveOAuth2AuthorizedClientManager} bean named <code>upstreamAuthorizedClientManager</code> replaces the
+ * client credentials one created for this, e.g. to hand out test tokens.
+ * <p>
+ * The clients are created lazily, so the connection pools only exist if the reactive controllers are in use.
+ */
+@Component
+@Lazy
+public class UpstreamWebClients implements DisposableBean {
+
+    private final ObjectProvider<WebClient.Builder> webClientBuilderProvider;
+    private final ExchangeFilterFunction authentication;
+    private final HttpTransportProperties transportProperties;
+    private final List<ConnectionProvider> connectionProviders = new CopyOnWriteArrayList<>();
+
+    public UpstreamWebClients(ObjectProvider<ClientRegistrationRepository> clientRegistrationRepositoryProvider,
+                              @Qualifier("upstreamAuthorizedClientManager")
+                              ObjectProvider<ReactiveOAuth2AuthorizedClientManager> authorizedClientManagerProvider,
+                              ObjectProvider<WebClient.Builder> webClientBuilderProvider,
+                              ObjectProvider<AccessTokenManager> accessTokenManagerProvider,
+                              TokenProperties tokenProperties,
+                              HttpTransportProperties transportProperties) {
+        this.webClientBuilderProvider = webClientBuilderProvider;
+        AccessTokenManager accessTokenManager = accessTokenManagerProvider.getIfAvailable();
+        this.authentication = accessTokenManager != null
+                ? managedTokenAuthentication(accessTokenManager)
+                : oauth2ClientAuthentication(authorizedClientManagerProvider.getIfAvailable(() -> clientCredentialsManager(
+                        clientRegistrationRepositoryProvider.getObject(), tokenProperties.clientRegistrationId())),
+                tokenProperties.clientRegistrationId());
+        this.transportProperties = transportProperties;
+    }
+
+    public WebClient.Builder builder(String upstream, String baseUrl) {
+        return webClientBuilderProvider.getIfAvailable(WebClient::builder)
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient(upstream, transportProperties.forUpstream(upstream))))
+                .filter(authentication);
+    }
+
+    private HttpClient httpClient(String upstream, HttpTransportProperties.Settings settings) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(upstream + "-upstream")
+                .maxConnections(settings.maxConnections())
+                .pendingAcquireTimeout(settings.connectionRequestTimeout())
+                .maxIdleTime(settings.idleTimeout())
+                .maxLifeTime(settings.timeToLive())
+                .metrics(true)
+                .build();
+        connectionProviders.add(connectionProvider);
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.connectTimeout().toMillis())
+                .responseTimeout(settings.readTimeout());
+        return settings.http2() ? httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11) : httpClient;
+    }
+
+    private static ExchangeFilterFunction managedTokenAuthentication(AccessTokenManager accessTokenManager) {
+        // The token refreshed in the background is read without blocking, acquiring one blocks and leaves the event loop
+        return (request, next) -> Mono.justOrEmpty(accessTokenManager.currentToken())
+                .switchIfEmpty(Mono.fromCallable(accessTokenManager::getToken).subscribeOn(Schedulers.boundedElastic()))
+                .map(token -> ClientRequest.from(request).headers(headers -> headers.setBearerAuth(token)).build())
+                .flatMap(next::exchange);
+    }
+
+    private static ExchangeFilterFunction oauth2ClientAuthentication(ReactiveOAuth2AuthorizedClientManager authorizedClientManager,
+                                                                     String clientRegistrationId) {
+        ServerOAuth2AuthorizedClientExchangeFilterFunction oauth2Client =
+                new ServerOAuth2AuthorizedClientExchangeFilterFunction(authorizedClientManager);
+        oauth2Client.setDefaultClientRegistrationId(clientRegistrationId);
+        return oauth2Client;
+    }
+
+    private static ReactiveOAuth2AuthorizedClientManager clientCredentialsManager(ClientRegistrationRepository clientRegistrationRepository,
+                                                                                  String clientRegistrationId) {
+        ClientRegistration clientRegistration = clientRegistrationRepository.findByRegistrationId(clientRegistrationId);
+        if (clientRegistration == null) {
+            throw new IllegalStateException("No OAuth2 client registration '" + clientRegistrationId + "' configured");
+        }
+        InMemoryReactiveClientRegistrationRepository registrations = new InMemoryReactiveClientRegistrationRepository(clientRegistration);
+        AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager authorizedClientManager =
+                new AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager(registrations,
+                        new InMemoryReactiveOAuth2AuthorizedClientService(registrations));
+        authorizedClientManager.setAuthorizedClientProvider(ReactiveOAuth2AuthorizedClientProviderBuilder.builder()
+                .clientCredentials()
+                .build());
+        return authorizedClientManager;
+    }
+
+    @Override
+    public void destroy() {
+        connectionProviders.forEach(ConnectionProvider::dispose);
+    }
+}
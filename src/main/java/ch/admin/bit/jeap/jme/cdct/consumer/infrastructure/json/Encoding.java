@@ -0,0 +1,50 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.json;
+
+import org.springframework.http.MediaType;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * The encodings of the task and user resources: JSON, and the binary encodings CBOR and Smile of the same data model,
+ * which are more compact and cheaper to parse.
+ */
+public enum Encoding {
+
+    JSON(MediaType.APPLICATION_JSON, null),
+    CBOR(MediaType.APPLICATION_CBOR, CBORMapper.builder().build()),
+    SMILE(new MediaType("application", "x-jackson-smile"), SmileMapper.builder().build());
+
+    private final MediaType mediaType;
+    private final ObjectMapper binaryMapper;
+
+    Encoding(MediaType mediaType, ObjectMapper binaryMapper) {
+        this.mediaType = mediaType;
+        this.binaryMapper = binaryMapper;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @param jsonMapper the application's JSON mapper, used for JSON
+     */
+    public ObjectMapper mapper(ObjectMapper jsonMapper) {
+        return binaryMapper != null ? binaryMapper : jsonMapper;
+    }
+
+    /**
+     * @return the encoding of the given content type, JSON if it is unknown or <code>null</code>
+     */
+    public static Encoding of(MediaType contentType) {
+        if (contentType != null) {
+            for (Encoding encoding : values()) {
+                if (encoding.mediaType.isCompatibleWith(contentType)) {
+                    return encoding;
+                }
+            }
+        }
+        return JSON;
+    }
+}
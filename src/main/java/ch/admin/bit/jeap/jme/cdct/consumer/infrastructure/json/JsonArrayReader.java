@@ -0,0 +1,63 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.json;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Reads a JSON array element by element and hands each element to a consumer as soon as it has been parsed.
+ * Only one element is held in memory at a time, so arrays of any size can be processed with constant memory.
+ * <p>
+ * Arrays in the binary {@link Encoding encodings} are read the same way.
+ */
+@Component
+public class JsonArrayReader {
+
+    private final ObjectMapper objectMapper;
+
+    public JsonArrayReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return The number of elements read
+     */
+    public <T> long read(InputStream inputStream, Class<T> elementType, Consumer<? super T> consumer) {
+        return read(inputStream, Encoding.JSON, elementType, consumer);
+    }
+
+    /**
+     * @param contentType the content type of the array, JSON if <code>null</code>
+     * @return The number of elements read
+     */
+    public <T> long read(InputStream inputStream, MediaType contentType, Class<T> elementType, Consumer<? super T> consumer) {
+        return read(inputStream, Encoding.of(contentType), elementType, consumer);
+    }
+
+    private <T> long read(InputStream inputStream, Encoding encoding, Class<T> elementType, Consumer<? super T> consumer) {
+        ObjectMapper mapper = encoding.mapper(objectMapper);
+        try (JsonParser parser = mapper.createParser(inputStream)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return 0;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IllegalStateException("Expected a JSON array, but the response starts with " + token);
+            }
+            long count = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() == null) {
+                    throw new IllegalStateException("Unexpected end of JSON array after " + count + " elements");
+                }
+                consumer.accept(mapper.readValue(parser, elementType));
+                count++;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.json;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+
+/**
+ * Reads short string values so that repeated values share one instance. The parser's characters are compared with the
+ * instance last read for the same hash in place, so a repeated value allocates nothing at all. The table is a
+ * fixed-size direct-mapped cache: colliding values replace each other, and races between threads at worst cost a
+ * duplicate.
+ */
+public final class StringDeduplicator {
+
+    private static final int MAX_LENGTH = 64;
+
+    private final String[] table;
+
+    /**
+     * @param capacity number of values kept, rounded up to a power of two
+     */
+    public StringDeduplicator(int capacity) {
+        this.table = new String[Integer.highestOneBit(Math.max(1, capacity - 1)) << 1];
+    }
+
+    /**
+     * @return the current value of the parser as string, <code>null</code> for JSON null
+     */
+    public String read(JsonParser parser) {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+        }
+        int length = parser.getStringLength();
+        if (length > MAX_LENGTH) {
+            return parser.getString();
+        }
+        char[] characters = parser.getStringCharacters();
+        int offset = parser.getStringOffset();
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + characters[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & (table.length - 1);
+        String cached = table[slot];
+        if (cached != null && matches(cached, characters, offset, length)) {
+            return cached;
+        }
+        String value = new String(characters, offset, length);
+        table[slot] = value;
+        return value;
+    }
+
+    private static boolean matches(String cached, char[] characters, int offset, int length) {
+        if (cached.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (cached.charAt(i) != characters[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
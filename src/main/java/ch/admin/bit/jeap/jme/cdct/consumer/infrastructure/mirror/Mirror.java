@@ -0,0 +1,155 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.mirror;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience.UpstreamUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Local mirror of a collection of the provider. The whole collection is pulled periodically and indexed by id, the
+ * new index then replaces the previous one atomically, so readers always see a complete and consistent snapshot.
+ * <p>
+ * Lookups are only served from the mirror while it is not older than the configured maximum staleness, callers are
+ * expected to fall back to live calls to the provider otherwise.
+ * <p>
+ * A sync the upstream API's bulkhead or circuit breaker rejects with an {@link UpstreamUnavailableException} is
+ * skipped, the mirror then keeps its snapshot until the next sync.
+ */
+@Slf4j
+public class Mirror<T> implements SmartLifecycle {
+
+    private final String name;
+    private final MirrorProperties.Settings settings;
+    private final Supplier<List<T>> source;
+    private final Function<T, String> idOf;
+    private final Timer successfulSyncTimer;
+    private final Timer failedSyncTimer;
+    private final Timer skippedSyncTimer;
+
+    private volatile Snapshot<T> snapshot;
+    private ScheduledExecutorService scheduler;
+
+    public Mirror(String name, MirrorProperties.Settings settings, Supplier<List<T>> source, Function<T, String> idOf,
+                  MeterRegistry meterRegistry) {
+        this.name = name;
+        this.settings = settings;
+        this.source = source;
+        this.idOf = idOf;
+        this.successfulSyncTimer = syncTimer("success", meterRegistry);
+        this.failedSyncTimer = syncTimer("failure", meterRegistry);
+        this.skippedSyncTimer = syncTimer("skipped", meterRegistry);
+        Gauge.builder("gateway.mirror.age", this, Mirror::ageSeconds)
+                .description("Time since the last successful sync of the mirror")
+                .baseUnit("seconds")
+                .tag("mirror", name)
+                .register(meterRegistry);
+        Gauge.builder("gateway.mirror.size", this, mirror -> mirror.snapshot == null ? 0 : mirror.snapshot.all().size())
+                .description("Number of elements in the mirror")
+                .tag("mirror", name)
+                .register(meterRegistry);
+    }
+
+    private Timer syncTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("gateway.mirror.sync")
+                .description("Duration of pulling the whole collection into the mirror")
+                .tag("mirror", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return All elements of the mirror, empty if the mirror is disabled or stale
+     */
+    public Optional<List<T>> all() {
+        return freshSnapshot().map(Snapshot::all);
+    }
+
+    /**
+     * @return The element with the given id, empty if the mirror is disabled or stale or the element is unknown
+     */
+    public Optional<T> byId(String id) {
+        return freshSnapshot().map(fresh -> fresh.byId().get(id));
+    }
+
+    /**
+     * @return All elements of the last successful sync regardless of its age, empty if the mirror was never synced
+     */
+    public Optional<List<T>> lastSynced() {
+        return Optional.ofNullable(snapshot).map(Snapshot::all);
+    }
+
+    /**
+     * @return The element with the given id from the last successful sync regardless of its age, empty if the
+     * mirror was never synced or the element is unknown
+     */
+    public Optional<T> lastSyncedById(String id) {
+        return Optional.ofNullable(snapshot).map(synced -> synced.byId().get(id));
+    }
+
+    private Optional<Snapshot<T>> freshSnapshot() {
+        Snapshot<T> current = snapshot;
+        if (current == null || System.nanoTime() - current.syncedAtNanos() > settings.maxStaleness().toNanos()) {
+            return Optional.empty();
+        }
+        return Optional.of(current);
+    }
+
+    public void sync() {
+        long start = System.nanoTime();
+        try {
+            List<T> elements = List.copyOf(source.get());
+            Map<String, T> byId = HashMap.newHashMap(elements.size());
+            elements.forEach(element -> byId.put(idOf.apply(element), element));
+            snapshot = new Snapshot<>(elements, Collections.unmodifiableMap(byId), System.nanoTime());
+            successfulSyncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (UpstreamUnavailableException e) {
+            skippedSyncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.info("Skipped syncing the {} mirror: {}", name, e.getMessage());
+        } catch (RuntimeException e) {
+            failedSyncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.warn("Syncing the {} mirror failed, keeping the mirror synced {}s ago", name, Math.round(ageSeconds()), e);
+        }
+    }
+
+    private double ageSeconds() {
+        Snapshot<T> current = snapshot;
+        return current == null ? Double.NaN : (System.nanoTime() - current.syncedAtNanos()) / 1e9;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (settings.enabled() && scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name(name + "-mirror-sync").factory());
+            scheduler.scheduleWithFixedDelay(this::sync, 0, settings.syncInterval().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private record Snapshot<T>(List<T> all, Map<String, T> byId, long syncedAtNanos) {
+    }
+}
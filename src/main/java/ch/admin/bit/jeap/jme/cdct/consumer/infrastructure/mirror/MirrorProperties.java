@@ -0,0 +1,24 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.mirror;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the local mirrors of the provider's task and user collections.
+ */
+@ConfigurationProperties(prefix = "gateway.mirror")
+public record MirrorProperties(@DefaultValue Settings task, @DefaultValue Settings user) {
+
+    /**
+     * @param enabled      Whether the collection is mirrored and lookups are served from the mirror
+     * @param syncInterval Delay between the end of a sync and the start of the next one
+     * @param maxStaleness Maximum age of the mirror, lookups fall back to live calls to the provider if it is older
+     */
+    public record Settings(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("1m") Duration syncInterval,
+            @DefaultValue("5m") Duration maxStaleness) {
+    }
+}
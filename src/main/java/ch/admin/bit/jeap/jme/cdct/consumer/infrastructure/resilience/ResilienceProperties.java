@@ -0,0 +1,51 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the bulkheads and circuit breakers isolating the provider's task and user APIs from each other.
+ */
+@ConfigurationProperties(prefix = "gateway.resilience")
+public record ResilienceProperties(@DefaultValue Settings task, @DefaultValue Settings user) {
+
+    public Settings forUpstream(String upstream) {
+        return switch (upstream) {
+            case "task" -> task;
+            case "user" -> user;
+            default -> throw new IllegalArgumentException("Unknown upstream " + upstream);
+        };
+    }
+
+    /**
+     * @param enabled                       Whether calls to the upstream API are guarded by a bulkhead and a circuit
+     *                                      breaker
+     * @param maxConcurrentCalls            Maximum number of concurrent calls to the upstream API
+     * @param maxConcurrentStreams          Maximum number of concurrent streams of a whole collection from the upstream
+     *                                      API, limited separately from the other calls
+     * @param maxWait                       Maximum time a call waits for a free slot in the bulkhead before it is
+     *                                      rejected
+     * @param failureRateThreshold          Failure rate in percent at which the circuit breaker opens
+     * @param slowCallDuration              Duration above which a call is considered slow
+     * @param slowCallRateThreshold         Rate of slow calls in percent at which the circuit breaker opens
+     * @param slidingWindow                 Rolling time window over which failure and slow call rates are computed
+     * @param minimumNumberOfCalls          Minimum number of calls in the window before the rates are evaluated
+     * @param waitInOpenState               Time the circuit breaker rejects calls before probing the upstream API
+     * @param permittedCallsInHalfOpenState Number of probe calls deciding whether the circuit breaker closes again
+     */
+    public record Settings(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("50") int maxConcurrentCalls,
+            @DefaultValue("10") int maxConcurrentStreams,
+            @DefaultValue("0s") Duration maxWait,
+            @DefaultValue("50") float failureRateThreshold,
+            @DefaultValue("3s") Duration slowCallDuration,
+            @DefaultValue("80") float slowCallRateThreshold,
+            @DefaultValue("30s") Duration slidingWindow,
+            @DefaultValue("10") int minimumNumberOfCalls,
+            @DefaultValue("30s") Duration waitInOpenState,
+            @DefaultValue("3") int permittedCallsInHalfOpenState) {
+    }
+}
@@ -0,0 +1,30 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the retries of failed calls to the provider's task and user APIs.
+ */
+@ConfigurationProperties(prefix = "gateway.retry")
+public record RetryProperties(@DefaultValue Settings task, @DefaultValue Settings user) {
+
+    /**
+     * @param enabled        Whether calls failing with a transient error are retried
+     * @param maxAttempts    Maximum number of attempts of a call, including the first one
+     * @param initialBackoff Upper limit of the random delay before the first retry
+     * @param multiplier     Factor by which the upper limit of the delay grows with every retry
+     * @param maxBackoff     Upper limit of the delay before any retry
+     * @param budget         Maximum share of additional calls caused by retries, in percent of all calls
+     */
+    public record Settings(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("3") int maxAttempts,
+            @DefaultValue("50ms") Duration initialBackoff,
+            @DefaultValue("2") double multiplier,
+            @DefaultValue("1s") Duration maxBackoff,
+            @DefaultValue("10") double budget) {
+    }
+}
@@ -0,0 +1,144 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Guards the calls to one upstream API with a bulkhead and a circuit breaker, so that a slow or failing API can
+ * neither exhaust the gateway's request threads nor drag down the endpoints served by other APIs.
+ * <p>
+ * The bulkhead limits the number of concurrent calls. Streams of whole collections are limited by a bulkhead of their
+ * own, so a few slow stream consumers cannot take all slots of the short calls. The circuit breaker opens if too many calls within the sliding
+ * window failed or were slow, and rejects calls until it lets a few probe calls through to decide whether to close
+ * again. Only I/O errors and server errors count as failures, client errors like 403 or 404 are the caller's
+ * business. Rejected calls fail fast with an {@link UpstreamUnavailableException}.
+ */
+@Slf4j
+public class UpstreamResilience {
+
+    private static final Duration BULKHEAD_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final String upstream;
+    private final ResilienceProperties.Settings settings;
+    private final Bulkhead bulkhead;
+    private final Bulkhead streamBulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final Counter circuitOpenRejections;
+    private final Counter bulkheadFullRejections;
+
+    public UpstreamResilience(String upstream, ResilienceProperties.Settings settings, MeterRegistry meterRegistry) {
+        this.upstream = upstream;
+        this.settings = settings;
+        this.bulkhead = Bulkhead.of(upstream, BulkheadConfig.custom()
+                .maxConcurrentCalls(settings.maxConcurrentCalls())
+                .maxWaitDuration(settings.maxWait())
+                .build());
+        this.streamBulkhead = Bulkhead.of(upstream + "-stream", BulkheadConfig.custom()
+                .maxConcurrentCalls(settings.maxConcurrentStreams())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        this.circuitBreaker = CircuitBreaker.of(upstream, CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.TIME_BASED)
+                .slidingWindowSize((int) settings.slidingWindow().toSeconds())
+                .minimumNumberOfCalls(settings.minimumNumberOfCalls())
+                .failureRateThreshold(settings.failureRateThreshold())
+                .slowCallDurationThreshold(settings.slowCallDuration())
+                .slowCallRateThreshold(settings.slowCallRateThreshold())
+                .waitDurationInOpenState(settings.waitInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(settings.permittedCallsInHalfOpenState())
+                .recordException(UpstreamResilience::isUpstreamFailure)
+                .build());
+        this.circuitOpenRejections = rejectionCounter("circuit-open", meterRegistry);
+        this.bulkheadFullRejections = rejectionCounter("bulkhead-full", meterRegistry);
+
+        Gauge.builder("gateway.resilience.circuit.state", circuitBreaker, breaker -> breaker.getState().getOrder())
+                .description("State of the circuit breaker (0 closed, 1 open, 2 half-open)")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.StateTransition transition = event.getStateTransition();
+            log.info("Circuit breaker of the {} API changed from {} to {}", upstream, transition.getFromState(), transition.getToState());
+            Counter.builder("gateway.resilience.circuit.transitions")
+                    .description("State transitions of the circuit breaker")
+                    .tag("upstream", upstream)
+                    .tag("from", transition.getFromState().name().toLowerCase(Locale.ROOT))
+                    .tag("to", transition.getToState().name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry)
+                    .increment();
+        });
+    }
+
+    private Counter rejectionCounter(String reason, MeterRegistry meterRegistry) {
+        return Counter.builder("gateway.resilience.rejected")
+                .description("Upstream calls rejected without being attempted")
+                .tag("upstream", upstream)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static boolean isUpstreamFailure(Throwable throwable) {
+        return throwable instanceof ResourceAccessException ||
+                (throwable instanceof RestClientResponseException responseException && responseException.getStatusCode().is5xxServerError());
+    }
+
+    public <T> T call(Supplier<T> upstreamCall) {
+        if (!settings.enabled()) {
+            return upstreamCall.get();
+        }
+        try {
+            return Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, upstreamCall)).get();
+        } catch (BulkheadFullException e) {
+            throw bulkheadFull(e);
+        } catch (CallNotPermittedException e) {
+            circuitOpenRejections.increment();
+            throw new UpstreamUnavailableException("The " + upstream + " API is unavailable", settings.waitInOpenState(), e);
+        }
+    }
+
+    /**
+     * Like {@link #call(Supplier)}, but answers rejected calls from the given fallback if it has a result.
+     */
+    public <T> T call(Supplier<T> upstreamCall, Supplier<Optional<T>> fallback) {
+        try {
+            return call(upstreamCall);
+        } catch (UpstreamUnavailableException e) {
+            return fallback.get().orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Streams from the upstream API within the stream bulkhead. Streams bypass the circuit breaker, as their duration
+     * depends on the size of the collection rather than on the health of the API.
+     */
+    public void stream(Runnable upstreamStream) {
+        if (!settings.enabled()) {
+            upstreamStream.run();
+            return;
+        }
+        try {
+            Bulkhead.decorateRunnable(streamBulkhead, upstreamStream).run();
+        } catch (BulkheadFullException e) {
+            throw bulkheadFull(e);
+        }
+    }
+
+    private UpstreamUnavailableException bulkheadFull(BulkheadFullException e) {
+        bulkheadFullRejections.increment();
+        return new UpstreamUnavailableException("Too many concurrent calls to the " + upstream + " API", BULKHEAD_RETRY_AFTER, e);
+    }
+}
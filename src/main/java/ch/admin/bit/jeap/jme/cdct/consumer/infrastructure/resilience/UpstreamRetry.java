@@ -0,0 +1,102 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.Deadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Retries idempotent calls to one upstream API that failed with a transient error: an I/O error like a reset
+ * connection, or one of the statuses 502, 503 and 504. Other errors, in particular 403, are never retried.
+ * <p>
+ * Retries are delayed by a random backoff between zero and an upper limit that grows exponentially with every retry
+ * ("full jitter"), so that callers failing at the same time do not retry at the same time. A retry is not attempted if
+ * its delay would exceed the {@link Deadline} of the request.
+ * <p>
+ * Retries are limited by a budget: every call earns a fraction of a retry and every retry spends a whole one, so
+ * retries never add more than the configured share of load. If the upstream API is down, almost all calls fail and
+ * the budget is used up after a few retries, instead of multiplying the load on the API.
+ */
+public class UpstreamRetry {
+
+    private static final long RETRY_COST = 1_000;
+    private static final long MAX_SAVED_RETRIES = 10;
+
+    private final RetryProperties.Settings settings;
+    private final long earnedPerCall;
+    private final AtomicLong budget = new AtomicLong(MAX_SAVED_RETRIES * RETRY_COST);
+    private final Counter retryCounter;
+    private final Counter budgetExhaustedCounter;
+
+    public UpstreamRetry(String upstream, RetryProperties.Settings settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.earnedPerCall = Math.round(RETRY_COST * settings.budget() / 100);
+        this.retryCounter = Counter.builder("gateway.retry.sent")
+                .description("Retries of calls that failed with a transient error")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+        this.budgetExhaustedCounter = Counter.builder("gateway.retry.budget.exhausted")
+                .description("Failed calls not retried because the retry budget was exhausted")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> call) {
+        if (!settings.enabled()) {
+            return call.get();
+        }
+        budget.accumulateAndGet(earnedPerCall, (saved, earned) -> Math.min(saved + earned, MAX_SAVED_RETRIES * RETRY_COST));
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.get();
+            } catch (RuntimeException e) {
+                if (attempt >= settings.maxAttempts() || !isTransient(e)) {
+                    throw e;
+                }
+                long backoffNanos = backoffNanos(attempt);
+                if (Deadline.current().map(deadline -> deadline.remaining().toNanos() <= backoffNanos).orElse(false)) {
+                    throw e;
+                }
+                if (budget.getAndUpdate(saved -> saved >= RETRY_COST ? saved - RETRY_COST : saved) < RETRY_COST) {
+                    budgetExhaustedCounter.increment();
+                    throw e;
+                }
+                sleep(backoffNanos, e);
+                retryCounter.increment();
+            }
+        }
+    }
+
+    static boolean isTransient(RuntimeException e) {
+        if (e instanceof ResourceAccessException) {
+            return true;
+        }
+        if (e instanceof RestClientResponseException responseException) {
+            int status = responseException.getStatusCode().value();
+            return status == 502 || status == 503 || status == 504;
+        }
+        return false;
+    }
+
+    private long backoffNanos(int attempt) {
+        double limit = Math.min(settings.initialBackoff().toNanos() * Math.pow(settings.multiplier(), attempt - 1),
+                settings.maxBackoff().toNanos());
+        return (long) (ThreadLocalRandom.current().nextDouble() * limit);
+    }
+
+    private static void sleep(long backoffNanos, RuntimeException failure) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(backoffNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+}
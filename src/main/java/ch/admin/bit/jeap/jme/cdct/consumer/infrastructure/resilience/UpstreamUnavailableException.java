@@ -0,0 +1,20 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * A call to an upstream API was rejected without being attempted, because the API's circuit breaker is open or its
+ * bulkhead is full.
+ */
+@Getter
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private final transient Duration retryAfter;
+
+    UpstreamUnavailableException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,113 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache.ByIdCache;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache.CacheProperties;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache.NegativeCache;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience.UpstreamResilience;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience.UpstreamUnavailableException;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.CoalescingProperties;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.Hedger;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.HedgingProperties;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Serves the gateway's task lookups. Tasks looked up by id go through a read-through cache in front of the
+ * {@link TaskClient} (see <code>gateway.cache.task</code>). Concurrent lookups of the same id share one upstream
+ * call (see <code>gateway.coalescing</code>), slow lookups may be hedged (see <code>gateway.hedging.task</code>).
+ * The task collection is fetched from the provider.
+ * <p>
+ * Ids the provider does not know are answered with a {@link TaskNotFoundException}. They are remembered for a short
+ * time, and may be checked against a Bloom filter of the ids of the last fetched collection (see
+ * <code>gateway.negative-cache.task</code>), so that repeated lookups of missing ids do not reach the provider.
+ * <p>
+ * If the task mirror is enabled and fresh (see <code>gateway.mirror.task</code>), lookups are served from the mirror.
+ * <p>
+ * Calls to the provider are guarded by the task API's bulkhead and circuit breaker (see
+ * <code>gateway.resilience.task</code>). Rejected calls are answered from the mirror's last sync if there is one.
+ */
+@Component
+public class CachingTaskClient {
+
+    private final TaskClient taskClient;
+    private final TaskMirror mirror;
+    private final UpstreamResilience resilience;
+    private final Hedger hedger;
+    private final SingleFlight<Task> singleFlight;
+    private final ByIdCache<Task> cache;
+    private final NegativeCache negativeCache;
+
+    public CachingTaskClient(TaskClient taskClient, TaskMirror mirror, CacheProperties cacheProperties,
+                             CoalescingProperties coalescingProperties, TaskResilience resilience,
+                             HedgingProperties hedgingProperties, TaskNegativeCache negativeCache,
+                             MeterRegistry meterRegistry) {
+        this.taskClient = taskClient;
+        this.mirror = mirror;
+        this.resilience = resilience;
+        this.hedger = new Hedger("task", hedgingProperties.task(), meterRegistry);
+        this.singleFlight = new SingleFlight<>("task", coalescingProperties.enabled(), meterRegistry);
+        this.cache = new ByIdCache<>("task", cacheProperties.task(), this::loadTask, meterRegistry);
+        this.negativeCache = negativeCache;
+    }
+
+    public Task getTaskById(String id) {
+        return mirror.byId(id).orElseGet(() -> lookUpTask(id));
+    }
+
+    private Task lookUpTask(String id) {
+        if (negativeCache.isKnownMissing(id)) {
+            throw new TaskNotFoundException(id);
+        }
+        try {
+            return cache.get(id);
+        } catch (TaskNotFoundException e) {
+            negativeCache.recordMissing(id);
+            throw e;
+        }
+    }
+
+    private Task loadTask(String id) {
+        return singleFlight.execute(id, () -> resilience.call(
+                () -> hedger.call(() -> taskClient.getTaskById(id)),
+                () -> mirror.lastSyncedById(id)));
+    }
+
+    public List<Task> getAllTasks() {
+        return mirror.all().orElseGet(() -> resilience.call(this::fetchAllTasks, mirror::lastSynced));
+    }
+
+    private List<Task> fetchAllTasks() {
+        List<Task> tasks = taskClient.getAllTasks();
+        negativeCache.recordAll(tasks, Task::id);
+        return tasks;
+    }
+
+    /**
+     * Fetches all tasks like {@link #getAllTasks()} and puts them into the by-id cache, so that the first lookups
+     * need not call the provider.
+     */
+    public List<Task> prefetchAllTasks() {
+        List<Task> tasks = getAllTasks();
+        cache.seed(tasks, Task::id);
+        return tasks;
+    }
+
+    public void streamAllTasks(Consumer<Task> consumer) {
+        mirror.all().ifPresentOrElse(
+                tasks -> tasks.forEach(consumer),
+                () -> streamTasks(consumer));
+    }
+
+    private void streamTasks(Consumer<Task> consumer) {
+        try {
+            resilience.stream(() -> taskClient.streamAllTasks(consumer));
+        } catch (UpstreamUnavailableException e) {
+            mirror.lastSynced().orElseThrow(() -> e).forEach(consumer);
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http.UpstreamWebClients;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+/**
+ * Non-blocking counterpart of the {@link TaskClient}, complying with the same pacts.
+ */
+@Component
+@Lazy
+public class ReactiveTaskClient {
+
+    private final WebClient webClient;
+
+    public ReactiveTaskClient(UpstreamWebClients upstreamWebClients, @Value("${task-api-url}") String taskApiUrl) {
+        this.webClient = upstreamWebClients.builder("task", taskApiUrl).build();
+    }
+
+    public Mono<Task> getTaskById(String id) {
+        return webClient.get()
+                .uri("/{id}", id)
+                .accept(APPLICATION_JSON)
+                .retrieve()
+                .onStatus(status -> status.isSameCodeAs(HttpStatus.FORBIDDEN), response -> Mono.error(
+                        new InsufficientAuthenticationException("Insufficient authentication to access task API.")))
+                .onStatus(status -> status.isSameCodeAs(HttpStatus.NOT_FOUND), response -> Mono.error(new TaskNotFoundException(id)))
+                .bodyToMono(Task.class);
+    }
+
+    /**
+     * Emits the tasks while the provider's response is being decoded, as fast as the subscriber requests them.
+     */
+    public Flux<Task> getAllTasks() {
+        return webClient.get()
+                .accept(APPLICATION_JSON)
+                .retrieve()
+                .onStatus(status -> status.isSameCodeAs(HttpStatus.FORBIDDEN), response -> Mono.error(
+                        new InsufficientAuthenticationException("Insufficient authentication to access task API.")))
+                .bodyToFlux(Task.class);
+    }
+}
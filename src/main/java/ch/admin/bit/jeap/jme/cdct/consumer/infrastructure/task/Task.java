@@ -1,26 +1,16 @@
 package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task;
 
-import lombok.Data;
-import lombok.NoArgsConstructor;
 import lombok.NonNull;
+import tools.jackson.databind.annotation.JsonDeserialize;
 
 /**
  * Note: The consumer is not interested in all data of the provider's tasks. The consumer's tasks only
  * include id, title and content, but not the additional tag and the createdAt data from the provider's tasks.
  * Therefore, when specifying pacts for the provider, this consumer will completely ignore those additional fields,
  * because those are not his business.
+ * <p>
+ * Tasks are decoded by the {@link TaskDeserializer}, which skips the provider's additional fields without reading them.
  */
-@Data
-@NoArgsConstructor
-public class Task {
-
-    @NonNull
-    private String id;
-
-    @NonNull
-    private String title;
-
-    @NonNull
-    private String content;
-
+@JsonDeserialize(using = TaskDeserializer.class)
+public record Task(@NonNull String id, @NonNull String title, @NonNull String content) {
 }
@@ -1,49 +1,98 @@
 package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task;
 
-import ch.admin.bit.jeap.security.restclient.JeapOAuth2RestClientBuilderFactory;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache.ConditionalRequestProperties;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache.ConditionalResponseCache;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http.UpstreamMetrics;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http.UpstreamRestClients;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.json.JsonArrayReader;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience.RetryProperties;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience.UpstreamRetry;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.InsufficientAuthenticationException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
 
 import java.util.List;
+import java.util.function.Consumer;
 
-import static java.util.Arrays.asList;
+import static ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http.UpstreamMetrics.Operation.GET_ALL;
+import static ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http.UpstreamMetrics.Operation.GET_BY_ID;
+import static ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http.UpstreamMetrics.Operation.STREAM_ALL;
 import static java.util.Collections.emptyList;
-import static org.springframework.http.MediaType.APPLICATION_JSON;
 
 @Component
 public class TaskClient {
 
+    private static final ParameterizedTypeReference<List<Task>> TASK_LIST = new ParameterizedTypeReference<>() {
+    };
+    private static final String ALL_TASKS = "*";
+
     private final RestClient restClient;
+    private final MediaType[] acceptedTypes;
+    private final UpstreamMetrics metrics;
+    private final UpstreamRetry retry;
+    private final JsonArrayReader jsonArrayReader;
+    private final ConditionalResponseCache<Task> taskResponses;
+    private final ConditionalResponseCache<List<Task>> allTasksResponses;
 
-    public TaskClient(JeapOAuth2RestClientBuilderFactory jeapOAuth2RestClientBuilderFactory, @Value("${task-api-url}") String taskApiUrl) {
-        this.restClient = jeapOAuth2RestClientBuilderFactory.createForClientRegistryId("jme-cdct-segregated-consumer-service").baseUrl(taskApiUrl).build();
+    public TaskClient(UpstreamRestClients upstreamRestClients, @Value("${task-api-url}") String taskApiUrl, JsonArrayReader jsonArrayReader,
+                      ConditionalRequestProperties conditionalRequestProperties, RetryProperties retryProperties,
+                      MeterRegistry meterRegistry) {
+        this.restClient = upstreamRestClients.builder("task", taskApiUrl).build();
+        this.acceptedTypes = upstreamRestClients.accept("task");
+        this.metrics = upstreamRestClients.metrics("task");
+        this.retry = new UpstreamRetry("task", retryProperties.task(), meterRegistry);
+        this.jsonArrayReader = jsonArrayReader;
+        this.taskResponses = new ConditionalResponseCache<>(conditionalRequestProperties);
+        this.allTasksResponses = new ConditionalResponseCache<>(conditionalRequestProperties);
     }
 
     public Task getTaskById(String id) {
-        return restClient.get()
+        return retry.call(() -> metrics.record(GET_BY_ID, () -> taskResponses.fetch(id, validators -> restClient.get()
                 .uri("/{id}", id)
-                .accept(APPLICATION_JSON)
+                .accept(acceptedTypes)
+                .headers(validators)
                 .retrieve()
                 .onStatus(status -> status.isSameCodeAs(HttpStatus.FORBIDDEN), (request, response) -> {
                     throw new InsufficientAuthenticationException("Insufficient authentication to access task API.");
                 })
-                .body(Task.class);
+                .onStatus(status -> status.isSameCodeAs(HttpStatus.NOT_FOUND), (request, response) -> {
+                    throw new TaskNotFoundException(id);
+                })
+                .toEntity(Task.class))));
     }
 
-    @SuppressWarnings("java:S2583") // SonarQube seems to get this wrong, block can return null if the Mono is empty.
     public List<Task> getAllTasks() {
-        Task[] taskArray = restClient.get()
-                .accept(APPLICATION_JSON)
+        List<Task> tasks = retry.call(() -> metrics.record(GET_ALL, () -> allTasksResponses.fetch(ALL_TASKS, validators -> restClient.get()
+                .accept(acceptedTypes)
+                .headers(validators)
                 .retrieve()
-                .body(Task[].class);
-        if (taskArray != null) {
-            return asList(taskArray);
-        } else {
-            return emptyList();
-        }
+                .toEntity(TASK_LIST))));
+        return tasks != null ? tasks : emptyList();
+    }
+
+    /**
+     * Streams all tasks from the provider to the given consumer while the provider's response is being read,
+     * i.e. without holding the whole collection in memory.
+     */
+    public void streamAllTasks(Consumer<Task> consumer) {
+        metrics.record(STREAM_ALL, () -> restClient.get()
+                .accept(acceptedTypes)
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isSameCodeAs(HttpStatus.FORBIDDEN)) {
+                        throw new InsufficientAuthenticationException("Insufficient authentication to access task API.");
+                    }
+                    if (response.getStatusCode().isError()) {
+                        throw new RestClientResponseException("Streaming tasks failed", response.getStatusCode(),
+                                response.getStatusText(), response.getHeaders(), null, null);
+                    }
+                    return jsonArrayReader.read(response.getBody(), response.getHeaders().getContentType(), Task.class, consumer);
+                }));
     }
 
 }
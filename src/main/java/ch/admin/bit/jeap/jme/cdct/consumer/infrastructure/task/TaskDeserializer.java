@@ -0,0 +1,41 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.json.StringDeduplicator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.ValueDeserializer;
+
+/**
+ * Decodes a {@link Task} straight from the parser's tokens. Fields the consumer does not use are skipped without
+ * materializing their values. Ids and titles are deduplicated, also across repeated fetches of the task collection,
+ * the content is read as it is.
+ */
+class TaskDeserializer extends ValueDeserializer<Task> {
+
+    private static final StringDeduplicator STRINGS = new StringDeduplicator(16384);
+
+    @Override
+    public Task deserialize(JsonParser parser, DeserializationContext context) {
+        if (!parser.isExpectedStartObjectToken()) {
+            return (Task) context.handleUnexpectedToken(Task.class, parser);
+        }
+        String id = null;
+        String title = null;
+        String content = null;
+        for (JsonToken token = parser.nextToken(); token == JsonToken.PROPERTY_NAME; token = parser.nextToken()) {
+            String name = parser.currentName();
+            parser.nextToken();
+            switch (name) {
+                case "id" -> id = STRINGS.read(parser);
+                case "title" -> title = STRINGS.read(parser);
+                case "content" -> content = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+        if (id == null || title == null || content == null) {
+            return context.reportInputMismatch(this, "Task requires id, title and content, got id=%s, title=%s", id, title);
+        }
+        return new Task(id, title, content);
+    }
+}
@@ -0,0 +1,28 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.mirror.Mirror;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.mirror.MirrorProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Local mirror of the provider's tasks, see <code>gateway.mirror.task</code>. Syncs go through the task API's bulkhead
+ * and circuit breaker, and are skipped while they reject calls. Every synced collection also updates the Bloom filter
+ * of the task negative cache.
+ */
+@Component
+class TaskMirror extends Mirror<Task> {
+
+    TaskMirror(TaskClient taskClient, TaskResilience resilience, TaskNegativeCache negativeCache,
+               MirrorProperties mirrorProperties, MeterRegistry meterRegistry) {
+        super("task", mirrorProperties.task(), () -> fetchAllTasks(taskClient, resilience, negativeCache), Task::id, meterRegistry);
+    }
+
+    private static List<Task> fetchAllTasks(TaskClient taskClient, TaskResilience resilience, TaskNegativeCache negativeCache) {
+        List<Task> tasks = resilience.call(taskClient::getAllTasks);
+        negativeCache.recordAll(tasks, Task::id);
+        return tasks;
+    }
+}
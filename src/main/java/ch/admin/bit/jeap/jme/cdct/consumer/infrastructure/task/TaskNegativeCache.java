@@ -0,0 +1,18 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache.NegativeCache;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache.NegativeCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ids the provider's task API does not know, see <code>gateway.negative-cache.task</code>. The Bloom filter is rebuilt
+ * from every task collection fetched, by the lookups and by the syncs of the task mirror.
+ */
+@Component
+class TaskNegativeCache extends NegativeCache {
+
+    TaskNegativeCache(NegativeCacheProperties negativeCacheProperties, MeterRegistry meterRegistry) {
+        super("task", negativeCacheProperties.task(), meterRegistry);
+    }
+}
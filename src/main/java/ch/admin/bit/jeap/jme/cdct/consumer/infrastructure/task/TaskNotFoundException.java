@@ -0,0 +1,13 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.NotFoundException;
+
+/**
+ * There is no task with the requested id.
+ */
+public class TaskNotFoundException extends NotFoundException {
+
+    public TaskNotFoundException(String id) {
+        super("There is no task with id " + id, id);
+    }
+}
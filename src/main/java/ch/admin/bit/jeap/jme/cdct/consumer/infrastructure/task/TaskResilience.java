@@ -0,0 +1,18 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience.ResilienceProperties;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience.UpstreamResilience;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bulkhead and circuit breaker of the provider's task API, see <code>gateway.resilience.task</code>. Shared by the
+ * lookups and the syncs of the task mirror.
+ */
+@Component
+class TaskResilience extends UpstreamResilience {
+
+    TaskResilience(ResilienceProperties resilienceProperties, MeterRegistry meterRegistry) {
+        super("task", resilienceProperties.task(), meterRegistry);
+    }
+}
@@ -0,0 +1,181 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.token;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResponseClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2ClientCredentialsGrantRequest;
+import org.springframework.security.oauth2.client.endpoint.RestClientClientCredentialsTokenResponseClient;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the client credentials access token shared by all clients of the provider's APIs. The token is refreshed in
+ * the background the configured margin before it expires, so requests do not have to wait for the token endpoint.
+ * The margin is capped at half the lifetime of the token, so short-lived tokens are not refreshed right away again.
+ * A token is only acquired on the request path if there is no valid token, e.g. because background refreshes failed.
+ */
+@Component
+@ConditionalOnProperty(prefix = "gateway.token", name = "managed", havingValue = "true")
+@Slf4j
+public class AccessTokenManager implements SmartLifecycle {
+
+    private static final Duration MINIMUM_REMAINING_VALIDITY = Duration.ofSeconds(5);
+
+    private final TokenProperties properties;
+    private final ClientRegistration clientRegistration;
+    private final OAuth2AccessTokenResponseClient<OAuth2ClientCredentialsGrantRequest> tokenResponseClient =
+            new RestClientClientCredentialsTokenResponseClient();
+    private final ReentrantLock acquisitionLock = new ReentrantLock();
+    private final Timer backgroundAcquisitionTimer;
+    private final Timer synchronousAcquisitionTimer;
+    private final AtomicBoolean marginCapLogged = new AtomicBoolean();
+
+    private volatile OAuth2AccessToken token;
+    private ScheduledExecutorService scheduler;
+
+    public AccessTokenManager(ClientRegistrationRepository clientRegistrationRepository, TokenProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.clientRegistration = clientRegistrationRepository.findByRegistrationId(properties.clientRegistrationId());
+        if (clientRegistration == null) {
+            throw new IllegalStateException("No OAuth2 client registration '" + properties.clientRegistrationId() + "' configured");
+        }
+        this.backgroundAcquisitionTimer = acquisitionTimer("background", meterRegistry);
+        this.synchronousAcquisitionTimer = acquisitionTimer("synchronous", meterRegistry);
+        Gauge.builder("gateway.token.validity", this, AccessTokenManager::remainingValiditySeconds)
+                .description("Remaining validity of the current access token")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    private static Timer acquisitionTimer(String mode, MeterRegistry meterRegistry) {
+        return Timer.builder("gateway.token.acquisition")
+                .description("Duration of acquiring an access token from the token endpoint")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return The current access token if it is still valid, never acquires a token
+     */
+    public Optional<String> currentToken() {
+        OAuth2AccessToken current = token;
+        return isValid(current) ? Optional.of(current.getTokenValue()) : Optional.empty();
+    }
+
+    /**
+     * @return A valid access token, acquired synchronously only if no valid token is available
+     */
+    public String getToken() {
+        OAuth2AccessToken current = token;
+        if (isValid(current)) {
+            return current.getTokenValue();
+        }
+        acquisitionLock.lock();
+        try {
+            current = token;
+            if (isValid(current)) {
+                return current.getTokenValue();
+            }
+            return acquire(synchronousAcquisitionTimer).getTokenValue();
+        } finally {
+            acquisitionLock.unlock();
+        }
+    }
+
+    private OAuth2AccessToken acquire(Timer timer) {
+        OAuth2AccessToken acquired = timer.record(() -> tokenResponseClient
+                .getTokenResponse(new OAuth2ClientCredentialsGrantRequest(clientRegistration))
+                .getAccessToken());
+        token = acquired;
+        return acquired;
+    }
+
+    private void refresh() {
+        Duration nextRefresh;
+        acquisitionLock.lock();
+        try {
+            OAuth2AccessToken refreshed = acquire(backgroundAcquisitionTimer);
+            nextRefresh = refreshed.getExpiresAt() == null ? properties.refreshMargin() : refreshDelay(refreshed, Instant.now());
+        } catch (RuntimeException e) {
+            log.warn("Refreshing the access token failed, retrying in {}", properties.retryDelay(), e);
+            nextRefresh = properties.retryDelay();
+        } finally {
+            acquisitionLock.unlock();
+        }
+        scheduleRefresh(nextRefresh.compareTo(properties.retryDelay()) < 0 ? properties.retryDelay() : nextRefresh);
+    }
+
+    /**
+     * @return The time until the given token is refreshed, the refresh margin before it expires but at most half its
+     * lifetime
+     */
+    Duration refreshDelay(OAuth2AccessToken refreshed, Instant now) {
+        Instant issuedAt = refreshed.getIssuedAt() != null ? refreshed.getIssuedAt() : now;
+        Duration lifetime = Duration.between(issuedAt, refreshed.getExpiresAt());
+        Duration margin = properties.refreshMargin();
+        if (margin.compareTo(lifetime.dividedBy(2)) > 0) {
+            if (marginCapLogged.compareAndSet(false, true)) {
+                log.warn("The token refresh margin of {} exceeds half the token lifetime of {}, tokens are refreshed halfway through their lifetime instead",
+                        margin, lifetime);
+            }
+            margin = lifetime.dividedBy(2);
+        }
+        return Duration.between(now, refreshed.getExpiresAt().minus(margin));
+    }
+
+    private synchronized void scheduleRefresh(Duration delay) {
+        if (scheduler != null) {
+            scheduler.schedule(this::refresh, delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static boolean isValid(OAuth2AccessToken token) {
+        return token != null && (token.getExpiresAt() == null ||
+                token.getExpiresAt().isAfter(Instant.now().plus(MINIMUM_REMAINING_VALIDITY)));
+    }
+
+    private double remainingValiditySeconds() {
+        OAuth2AccessToken current = token;
+        if (current == null || current.getExpiresAt() == null) {
+            return Double.NaN;
+        }
+        return Duration.between(Instant.now(), current.getExpiresAt()).toMillis() / 1000.0;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("access-token-refresh").factory());
+            scheduler.execute(this::refresh);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+}
@@ -0,0 +1,24 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.token;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the access token used to authenticate against the provider.
+ *
+ * @param clientRegistrationId OAuth2 client registration used to obtain access tokens for the provider's APIs
+ * @param managed              Whether the token is obtained and refreshed by the {@link AccessTokenManager} instead
+ *                             of on demand by the jEAP OAuth2 rest client
+ * @param refreshMargin        How long before its expiry a managed token is refreshed in the background, at most half
+ *                             the lifetime of the token
+ * @param retryDelay           Delay before a failed background refresh is retried
+ */
+@ConfigurationProperties(prefix = "gateway.token")
+public record TokenProperties(
+        @DefaultValue("jme-cdct-segregated-consumer-service") String clientRegistrationId,
+        @DefaultValue("false") boolean managed,
+        @DefaultValue("1m") Duration refreshMargin,
+        @DefaultValue("5s") Duration retryDelay) {
+}
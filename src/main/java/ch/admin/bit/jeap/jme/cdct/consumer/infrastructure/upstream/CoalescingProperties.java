@@ -0,0 +1,11 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled Whether concurrent lookups of the same id share a single upstream call
+ */
+@ConfigurationProperties(prefix = "gateway.coalescing")
+public record CoalescingProperties(@DefaultValue("true") boolean enabled) {
+}
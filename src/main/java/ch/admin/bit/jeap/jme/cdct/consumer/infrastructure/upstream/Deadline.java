@@ -0,0 +1,87 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * The point in time after which nobody waits for the result of a request anymore. The deadline of the request being
+ * handled is bound to its thread, upstream calls made on its behalf take their timeouts from it. Work handed over to
+ * other threads carries the deadline along with {@link #propagate(Supplier)}.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * @return The deadline bound to the current thread, empty if the current thread does not work on behalf of a
+     * request with a deadline
+     */
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Binds this deadline to the current thread until the returned binding is closed.
+     */
+    public Binding bind() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    /**
+     * Wraps the given call so that it runs with the deadline of the current thread, wherever it is executed.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> call) {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return call;
+        }
+        return () -> {
+            try (Binding ignored = deadline.bind()) {
+                return call.get();
+            }
+        };
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    /**
+     * @throws DeadlineExceededException If the deadline has passed
+     */
+    public void check() {
+        if (isExpired()) {
+            throw new DeadlineExceededException("Deadline of the request exceeded");
+        }
+    }
+
+    @FunctionalInterface
+    public interface Binding extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
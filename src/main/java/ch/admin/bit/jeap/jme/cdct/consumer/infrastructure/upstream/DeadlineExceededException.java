@@ -0,0 +1,15 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream;
+
+/**
+ * Thrown instead of calling or waiting for an upstream API when the deadline of the request has passed.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
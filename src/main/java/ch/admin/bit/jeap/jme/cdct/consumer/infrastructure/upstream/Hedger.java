@@ -0,0 +1,161 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Cuts the latency tail of idempotent upstream calls: if a call has not answered after the configured percentile of
+ * recent call latencies, an identical second call is sent and whichever answers first wins. The loser is not aborted,
+ * its response is discarded.
+ * <p>
+ * Hedging is limited by a budget: every call earns a fraction of a hedge and every hedge spends a whole one, so
+ * hedges never add more than the configured share of load. This keeps hedging from amplifying an overload of the
+ * upstream API, where all calls are slow.
+ * <p>
+ * Both calls run with the {@link Deadline} of the caller.
+ */
+public class Hedger {
+
+    private static final int LATENCY_SAMPLES = 1024;
+    private static final int RECOMPUTE_INTERVAL = 64;
+    private static final long HEDGE_COST = 1_000;
+    private static final long MAX_SAVED_HEDGES = 10;
+
+    private final HedgingProperties.Settings settings;
+    private final long earnedPerCall;
+    private final Executor executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_SAMPLES);
+    private final AtomicLong recordedLatencies = new AtomicLong();
+    private final AtomicLong budget = new AtomicLong();
+    private final Counter hedgeCounter;
+    private final Counter hedgeWinCounter;
+    private final Counter budgetExhaustedCounter;
+
+    private volatile long hedgeDelayNanos;
+
+    public Hedger(String upstream, HedgingProperties.Settings settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.earnedPerCall = Math.round(HEDGE_COST * settings.budget() / 100);
+        this.hedgeDelayNanos = settings.minDelay().toNanos();
+        this.hedgeCounter = Counter.builder("gateway.hedge.sent")
+                .description("Second requests sent because the first one was slow")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+        this.hedgeWinCounter = Counter.builder("gateway.hedge.won")
+                .description("Second requests that answered before the first one")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+        this.budgetExhaustedCounter = Counter.builder("gateway.hedge.budget.exhausted")
+                .description("Slow requests not hedged because the hedge budget was exhausted")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> call) {
+        if (!settings.enabled()) {
+            return call.get();
+        }
+        budget.accumulateAndGet(earnedPerCall, (saved, earned) -> Math.min(saved + earned, MAX_SAVED_HEDGES * HEDGE_COST));
+
+        CompletableFuture<T> first = attempt(call);
+        try {
+            return first.get(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return hedge(call, first);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an upstream call", e);
+        }
+    }
+
+    private <T> T hedge(Supplier<T> call, CompletableFuture<T> first) {
+        if (budget.getAndUpdate(saved -> saved >= HEDGE_COST ? saved - HEDGE_COST : saved) < HEDGE_COST) {
+            budgetExhaustedCounter.increment();
+            return await(first);
+        }
+        hedgeCounter.increment();
+        CompletableFuture<T> second = attempt(call);
+
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(2);
+        first.whenComplete((result, failure) -> complete(winner, result, failure, pending));
+        second.whenComplete((result, failure) -> {
+            if (failure == null && !first.isDone()) {
+                hedgeWinCounter.increment();
+            }
+            complete(winner, result, failure, pending);
+        });
+        return await(winner);
+    }
+
+    /**
+     * Completes the winner with the first successful result, or with the last failure if both calls failed.
+     */
+    private static <T> void complete(CompletableFuture<T> winner, T result, Throwable failure, AtomicInteger pending) {
+        if (failure == null) {
+            winner.complete(result);
+        } else if (pending.decrementAndGet() == 0) {
+            winner.completeExceptionally(failure);
+        }
+    }
+
+    private <T> CompletableFuture<T> attempt(Supplier<T> call) {
+        long start = System.nanoTime();
+        return CompletableFuture.supplyAsync(Deadline.propagate(call), executor)
+                .whenComplete((result, failure) -> {
+                    if (failure == null) {
+                        recordLatency(System.nanoTime() - start);
+                    }
+                });
+    }
+
+    private void recordLatency(long latencyNanos) {
+        long recorded = recordedLatencies.getAndIncrement();
+        latencies.set((int) (recorded % LATENCY_SAMPLES), latencyNanos);
+        if (recorded >= RECOMPUTE_INTERVAL && recorded % RECOMPUTE_INTERVAL == 0) {
+            long[] samples = new long[(int) Math.min(recorded, LATENCY_SAMPLES)];
+            for (int i = 0; i < samples.length; i++) {
+                samples[i] = latencies.get(i);
+            }
+            Arrays.sort(samples);
+            int percentileIndex = (int) Math.ceil(samples.length * settings.percentile() / 100) - 1;
+            hedgeDelayNanos = Math.max(samples[Math.clamp(percentileIndex, 0, samples.length - 1)], settings.minDelay().toNanos());
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable failure) {
+        if (failure instanceof CompletionException && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        if (failure instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(failure);
+    }
+}
@@ -0,0 +1,26 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the hedged by-id lookups against the provider's task and user APIs.
+ */
+@ConfigurationProperties(prefix = "gateway.hedging")
+public record HedgingProperties(@DefaultValue Settings task, @DefaultValue Settings user) {
+
+    /**
+     * @param enabled    Whether a second identical request is sent if the first one is slow
+     * @param percentile Latency percentile of recent lookups after which the second request is sent
+     * @param minDelay   Minimum delay before the second request is sent, also used until enough latencies are known
+     * @param budget     Maximum share of additional requests caused by hedging, in percent of all lookups
+     */
+    public record Settings(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("95") double percentile,
+            @DefaultValue("20ms") Duration minDelay,
+            @DefaultValue("5") double budget) {
+    }
+}
@@ -0,0 +1,17 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream;
+
+import lombok.Getter;
+
+/**
+ * The upstream API does not know an entity with the requested id.
+ */
+@Getter
+public abstract class NotFoundException extends RuntimeException {
+
+    private final String id;
+
+    protected NotFoundException(String message, String id) {
+        super(message);
+        this.id = id;
+    }
+}
@@ -0,0 +1,147 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * De-duplicates concurrent upstream calls for the same key: the first caller starts the call, callers arriving
+ * while it is in flight wait for it and share its result or exception. In-flight calls are registered with
+ * {@link ConcurrentHashMap#compute(Object, java.util.function.BiFunction)}, so callers for different keys never
+ * block each other.
+ * <p>
+ * The shared call runs on its own virtual thread with the {@link Deadline} of the caller starting it, so its upstream
+ * timeouts are cut to that deadline. Every caller waits at most until its own deadline has passed. A caller with a
+ * later deadline, or none, whose shared call failed because of the earlier deadline of the caller that started it
+ * makes the call again rather than failing as well. A call all callers have stopped waiting for is not shared any
+ * further: its deadline has passed, so it ends on its own.
+ */
+public class SingleFlight<T> {
+
+    private final boolean enabled;
+    private final ThreadFactory callThreadFactory;
+    private final ConcurrentHashMap<String, Flight<T>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalescedCounter;
+
+    public SingleFlight(String upstream, boolean enabled, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.callThreadFactory = Thread.ofVirtual().name("single-flight-" + upstream + "-", 0).factory();
+        this.coalescedCounter = Counter.builder("gateway.upstream.coalesced")
+                .description("Upstream calls saved by joining an identical call already in flight")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+    }
+
+    public T execute(String key, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        Optional<Deadline> deadline = Deadline.current();
+        while (true) {
+            Flight<T> ownFlight = new Flight<>(deadline.orElse(null));
+            Flight<T> flight = inFlight.compute(key, (k, running) -> running != null && running.join() ? running : ownFlight.started());
+            if (flight == ownFlight) {
+                callThreadFactory.newThread(() -> run(key, call, ownFlight)).start();
+            } else {
+                coalescedCounter.increment();
+            }
+            try {
+                return await(key, flight, deadline);
+            } catch (DeadlineExceededException e) {
+                if (!flight.endedByEarlierDeadlineThan(deadline)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void run(String key, Supplier<T> call, Flight<T> flight) {
+        T result;
+        try (Deadline.Binding ignored = flight.deadline != null ? flight.deadline.bind() : () -> {
+        }) {
+            result = call.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.result.completeExceptionally(e);
+            return;
+        }
+        // removed before completing, so callers seeing the result never join the completed call afterwards
+        inFlight.remove(key, flight);
+        flight.result.complete(result);
+    }
+
+    private T await(String key, Flight<T> flight, Optional<Deadline> deadline) {
+        CompletableFuture<T> ownWait = deadline
+                .map(ownDeadline -> flight.result.copy().orTimeout(ownDeadline.remaining().toNanos(), TimeUnit.NANOSECONDS))
+                .orElse(flight.result);
+        try {
+            return ownWait.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                if (flight.leave()) {
+                    inFlight.remove(key, flight);
+                }
+                throw new DeadlineExceededException("Deadline of the request exceeded while waiting for a shared upstream call", e);
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A shared call and the callers waiting for it.
+     */
+    private static final class Flight<T> {
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final Deadline deadline;
+        private int waiters;
+        private boolean abandoned;
+
+        private Flight(Deadline deadline) {
+            this.deadline = deadline;
+        }
+
+        Flight<T> started() {
+            waiters = 1;
+            return this;
+        }
+
+        /**
+         * @return Whether the caller joined the call, false if all callers have stopped waiting for it
+         */
+        synchronized boolean join() {
+            if (abandoned) {
+                return false;
+            }
+            waiters++;
+            return true;
+        }
+
+        /**
+         * @return Whether the caller was the last one waiting for the call
+         */
+        synchronized boolean leave() {
+            waiters--;
+            abandoned = waiters == 0;
+            return abandoned;
+        }
+
+        boolean endedByEarlierDeadlineThan(Optional<Deadline> callerDeadline) {
+            return deadline != null && deadline.isExpired() && callerDeadline.map(own -> !own.isExpired()).orElse(true);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache.ByIdCache;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache.CacheProperties;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache.NegativeCache;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience.UpstreamResilience;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience.UpstreamUnavailableException;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.CoalescingProperties;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.Hedger;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.HedgingProperties;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Serves the gateway's user lookups. Users looked up by id go through a read-through cache in front of the
+ * {@link UserClient} (see <code>gateway.cache.user</code>). Concurrent lookups of the same id share one upstream
+ * call (see <code>gateway.coalescing</code>), slow lookups may be hedged (see <code>gateway.hedging.user</code>).
+ * The user collection is fetched from the provider.
+ * <p>
+ * Ids the provider does not know are answered with a {@link UserNotFoundException}. They are remembered for a short
+ * time, and may be checked against a Bloom filter of the ids of the last fetched collection (see
+ * <code>gateway.negative-cache.user</code>), so that repeated lookups of missing ids do not reach the provider.
+ * <p>
+ * If the user mirror is enabled and fresh (see <code>gateway.mirror.user</code>), lookups are served from the mirror.
+ * <p>
+ * Calls to the provider are guarded by the user API's bulkhead and circuit breaker (see
+ * <code>gateway.resilience.user</code>). Rejected calls are answered from the mirror's last sync if there is one.
+ */
+@Component
+public class CachingUserClient {
+
+    private final UserClient userClient;
+    private final UserMirror mirror;
+    private final UpstreamResilience resilience;
+    private final Hedger hedger;
+    private final SingleFlight<User> singleFlight;
+    private final ByIdCache<User> cache;
+    private final NegativeCache negativeCache;
+
+    public CachingUserClient(UserClient userClient, UserMirror mirror, CacheProperties cacheProperties,
+                             CoalescingProperties coalescingProperties, UserResilience resilience,
+                             HedgingProperties hedgingProperties, UserNegativeCache negativeCache,
+                             MeterRegistry meterRegistry) {
+        this.userClient = userClient;
+        this.mirror = mirror;
+        this.resilience = resilience;
+        this.hedger = new Hedger("user", hedgingProperties.user(), meterRegistry);
+        this.singleFlight = new SingleFlight<>("user", coalescingProperties.enabled(), meterRegistry);
+        this.cache = new ByIdCache<>("user", cacheProperties.user(), this::loadUser, meterRegistry);
+        this.negativeCache = negativeCache;
+    }
+
+    public User getUserById(String id) {
+        return mirror.byId(id).orElseGet(() -> lookUpUser(id));
+    }
+
+    private User lookUpUser(String id) {
+        if (negativeCache.isKnownMissing(id)) {
+            throw new UserNotFoundException(id);
+        }
+        try {
+            return cache.get(id);
+        } catch (UserNotFoundException e) {
+            negativeCache.recordMissing(id);
+            throw e;
+        }
+    }
+
+    private User loadUser(String id) {
+        return singleFlight.execute(id, () -> resilience.call(
+                () -> hedger.call(() -> userClient.getUserById(id)),
+                () -> mirror.lastSyncedById(id)));
+    }
+
+    public List<User> getAllUsers() {
+        return mirror.all().orElseGet(() -> resilience.call(this::fetchAllUsers, mirror::lastSynced));
+    }
+
+    private List<User> fetchAllUsers() {
+        List<User> users = userClient.getAllUsers();
+        negativeCache.recordAll(users, User::id);
+        return users;
+    }
+
+    /**
+     * Fetches all users like {@link #getAllUsers()} and puts them into the by-id cache, so that the first lookups
+     * need not call the provider.
+     */
+    public List<User> prefetchAllUsers() {
+        List<User> users = getAllUsers();
+        cache.seed(users, User::id);
+        return users;
+    }
+
+    public void streamAllUsers(Consumer<User> consumer) {
+        mirror.all().ifPresentOrElse(
+                users -> users.forEach(consumer),
+                () -> streamUsers(consumer));
+    }
+
+    private void streamUsers(Consumer<User> consumer) {
+        try {
+            resilience.stream(() -> userClient.streamAllUsers(consumer));
+        } catch (UpstreamUnavailableException e) {
+            mirror.lastSynced().orElseThrow(() -> e).forEach(consumer);
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http.UpstreamWebClients;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+/**
+ * Non-blocking counterpart of the {@link UserClient}, complying with the same pacts.
+ */
+@Component
+@Lazy
+public class ReactiveUserClient {
+
+    private final WebClient webClient;
+
+    public ReactiveUserClient(UpstreamWebClients upstreamWebClients, @Value("${user-api-url}") String userApiUrl) {
+        this.webClient = upstreamWebClients.builder("user", userApiUrl).build();
+    }
+
+    public Mono<User> getUserById(String id) {
+        return webClient.get()
+                .uri("/{id}", id)
+                .accept(APPLICATION_JSON)
+                .retrieve()
+                .onStatus(status -> status.isSameCodeAs(HttpStatus.FORBIDDEN), response -> Mono.error(
+                        new InsufficientAuthenticationException("Insufficient authentication to access user API.")))
+                .onStatus(status -> status.isSameCodeAs(HttpStatus.NOT_FOUND), response -> Mono.error(new UserNotFoundException(id)))
+                .bodyToMono(User.class);
+    }
+
+    /**
+     * Emits the users while the provider's response is being decoded, as fast as the subscriber requests them.
+     */
+    public Flux<User> getAllUsers() {
+        return webClient.get()
+                .accept(APPLICATION_JSON)
+                .retrieve()
+                .onStatus(status -> status.isSameCodeAs(HttpStatus.FORBIDDEN), response -> Mono.error(
+                        new InsufficientAuthenticationException("Insufficient authentication to access user API.")))
+                .bodyToFlux(User.class);
+    }
+}
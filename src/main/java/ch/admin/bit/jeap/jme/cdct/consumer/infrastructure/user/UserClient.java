@@ -1,49 +1,98 @@
 package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user;
 
-import ch.admin.bit.jeap.security.restclient.JeapOAuth2RestClientBuilderFactory;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache.ConditionalRequestProperties;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache.ConditionalResponseCache;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http.UpstreamMetrics;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http.UpstreamRestClients;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.json.JsonArrayReader;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience.RetryProperties;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience.UpstreamRetry;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.InsufficientAuthenticationException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
 
 import java.util.List;
+import java.util.function.Consumer;
 
-import static java.util.Arrays.asList;
+import static ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http.UpstreamMetrics.Operation.GET_ALL;
+import static ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http.UpstreamMetrics.Operation.GET_BY_ID;
+import static ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http.UpstreamMetrics.Operation.STREAM_ALL;
 import static java.util.Collections.emptyList;
-import static org.springframework.http.MediaType.APPLICATION_JSON;
 
 @Component
 public class UserClient {
 
+    private static final ParameterizedTypeReference<List<User>> USER_LIST = new ParameterizedTypeReference<>() {
+    };
+    private static final String ALL_USERS = "*";
+
     private final RestClient restClient;
+    private final MediaType[] acceptedTypes;
+    private final UpstreamMetrics metrics;
+    private final UpstreamRetry retry;
+    private final JsonArrayReader jsonArrayReader;
+    private final ConditionalResponseCache<User> userResponses;
+    private final ConditionalResponseCache<List<User>> allUsersResponses;
 
-    public UserClient(JeapOAuth2RestClientBuilderFactory jeapOAuth2RestClientBuilderFactory, @Value("${user-api-url}") String taskApiUrl) {
-        this.restClient = jeapOAuth2RestClientBuilderFactory.createForClientRegistryId("jme-cdct-segregated-consumer-service").baseUrl(taskApiUrl).build();
+    public UserClient(UpstreamRestClients upstreamRestClients, @Value("${user-api-url}") String userApiUrl, JsonArrayReader jsonArrayReader,
+                      ConditionalRequestProperties conditionalRequestProperties, RetryProperties retryProperties,
+                      MeterRegistry meterRegistry) {
+        this.restClient = upstreamRestClients.builder("user", userApiUrl).build();
+        this.acceptedTypes = upstreamRestClients.accept("user");
+        this.metrics = upstreamRestClients.metrics("user");
+        this.retry = new UpstreamRetry("user", retryProperties.user(), meterRegistry);
+        this.jsonArrayReader = jsonArrayReader;
+        this.userResponses = new ConditionalResponseCache<>(conditionalRequestProperties);
+        this.allUsersResponses = new ConditionalResponseCache<>(conditionalRequestProperties);
     }
 
     public User getUserById(String id) {
-        return restClient.get()
+        return retry.call(() -> metrics.record(GET_BY_ID, () -> userResponses.fetch(id, validators -> restClient.get()
                 .uri("/{id}", id)
-                .accept(APPLICATION_JSON)
+                .accept(acceptedTypes)
+                .headers(validators)
                 .retrieve()
                 .onStatus(status -> status.isSameCodeAs(HttpStatus.FORBIDDEN), (request, response) -> {
                     throw new InsufficientAuthenticationException("Insufficient authentication to access user API.");
                 })
-                .body(User.class);
+                .onStatus(status -> status.isSameCodeAs(HttpStatus.NOT_FOUND), (request, response) -> {
+                    throw new UserNotFoundException(id);
+                })
+                .toEntity(User.class))));
     }
 
-    @SuppressWarnings("java:S2583") // SonarQube seems to get this wrong, block can return null if the Mono is empty.
     public List<User> getAllUsers() {
-        User[] userArray = restClient.get()
-                .accept(APPLICATION_JSON)
+        List<User> users = retry.call(() -> metrics.record(GET_ALL, () -> allUsersResponses.fetch(ALL_USERS, validators -> restClient.get()
+                .accept(acceptedTypes)
+                .headers(validators)
                 .retrieve()
-                .body(User[].class);
-        if (userArray != null) {
-            return asList(userArray);
-        } else {
-            return emptyList();
-        }
+                .toEntity(USER_LIST))));
+        return users != null ? users : emptyList();
+    }
+
+    /**
+     * Streams all users from the provider to the given consumer while the provider's response is being read,
+     * i.e. without holding the whole collection in memory.
+     */
+    public void streamAllUsers(Consumer<User> consumer) {
+        metrics.record(STREAM_ALL, () -> restClient.get()
+                .accept(acceptedTypes)
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isSameCodeAs(HttpStatus.FORBIDDEN)) {
+                        throw new InsufficientAuthenticationException("Insufficient authentication to access user API.");
+                    }
+                    if (response.getStatusCode().isError()) {
+                        throw new RestClientResponseException("Streaming users failed", response.getStatusCode(),
+                                response.getStatusText(), response.getHeaders(), null, null);
+                    }
+                    return jsonArrayReader.read(response.getBody(), response.getHeaders().getContentType(), User.class, consumer);
+                }));
     }
 
 }
@@ -0,0 +1,38 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.json.StringDeduplicator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.ValueDeserializer;
+
+/**
+ * Decodes a {@link User} straight from the parser's tokens. Fields the consumer does not use are skipped without
+ * materializing their values. Ids and names are deduplicated, also across repeated fetches of the user collection.
+ */
+class UserDeserializer extends ValueDeserializer<User> {
+
+    private static final StringDeduplicator STRINGS = new StringDeduplicator(16384);
+
+    @Override
+    public User deserialize(JsonParser parser, DeserializationContext context) {
+        if (!parser.isExpectedStartObjectToken()) {
+            return (User) context.handleUnexpectedToken(User.class, parser);
+        }
+        String id = null;
+        String name = null;
+        for (JsonToken token = parser.nextToken(); token == JsonToken.PROPERTY_NAME; token = parser.nextToken()) {
+            String property = parser.currentName();
+            parser.nextToken();
+            switch (property) {
+                case "id" -> id = STRINGS.read(parser);
+                case "name" -> name = STRINGS.read(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        if (id == null || name == null) {
+            return context.reportInputMismatch(this, "User requires id and name, got id=%s", id);
+        }
+        return new User(id, name);
+    }
+}
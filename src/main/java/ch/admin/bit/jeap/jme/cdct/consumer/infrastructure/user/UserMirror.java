@@ -0,0 +1,28 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.mirror.Mirror;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.mirror.MirrorProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Local mirror of the provider's users, see <code>gateway.mirror.user</code>. Syncs go through the user API's bulkhead
+ * and circuit breaker, and are skipped while they reject calls. Every synced collection also updates the Bloom filter
+ * of the user negative cache.
+ */
+@Component
+class UserMirror extends Mirror<User> {
+
+    UserMirror(UserClient userClient, UserResilience resilience, UserNegativeCache negativeCache,
+               MirrorProperties mirrorProperties, MeterRegistry meterRegistry) {
+        super("user", mirrorProperties.user(), () -> fetchAllUsers(userClient, resilience, negativeCache), User::id, meterRegistry);
+    }
+
+    private static List<User> fetchAllUsers(UserClient userClient, UserResilience resilience, UserNegativeCache negativeCache) {
+        List<User> users = resilience.call(userClient::getAllUsers);
+        negativeCache.recordAll(users, User::id);
+        return users;
+    }
+}
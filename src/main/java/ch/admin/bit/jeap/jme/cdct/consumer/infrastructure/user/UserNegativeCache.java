@@ -0,0 +1,18 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache.NegativeCache;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache.NegativeCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ids the provider's user API does not know, see <code>gateway.negative-cache.user</code>. The Bloom filter is rebuilt
+ * from every user collection fetched, by the lookups and by the syncs of the user mirror.
+ */
+@Component
+class UserNegativeCache extends NegativeCache {
+
+    UserNegativeCache(NegativeCacheProperties negativeCacheProperties, MeterRegistry meterRegistry) {
+        super("user", negativeCacheProperties.user(), meterRegistry);
+    }
+}
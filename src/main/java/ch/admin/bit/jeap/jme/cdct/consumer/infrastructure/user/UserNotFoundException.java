@@ -0,0 +1,13 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.NotFoundException;
+
+/**
+ * There is no user with the requested id.
+ */
+public class UserNotFoundException extends NotFoundException {
+
+    public UserNotFoundException(String id) {
+        super("There is no user with id " + id, id);
+    }
+}
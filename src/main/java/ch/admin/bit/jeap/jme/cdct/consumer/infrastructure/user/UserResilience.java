@@ -0,0 +1,18 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience.ResilienceProperties;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience.UpstreamResilience;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bulkhead and circuit breaker of the provider's user API, see <code>gateway.resilience.user</code>. Shared by the
+ * lookups and the syncs of the user mirror.
+ */
+@Component
+class UserResilience extends UpstreamResilience {
+
+    UserResilience(ResilienceProperties resilienceProperties, MeterRegistry meterRegistry) {
+        super("user", resilienceProperties.user(), meterRegistry);
+    }
+}
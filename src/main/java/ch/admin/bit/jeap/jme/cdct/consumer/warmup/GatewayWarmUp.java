@@ -0,0 +1,164 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.warmup;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.CachingTaskClient;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.Task;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.token.AccessTokenManager;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.Deadline;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user.CachingUserClient;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user.User;
+import ch.admin.bit.jeap.jme.cdct.consumer.web.api.DeadlineProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms the gateway up after startup (see <code>gateway.warmup</code>): acquires the access token, prefetches the
+ * task and user collections into the by-id caches, which also opens pooled connections to the provider, and sends
+ * synthetic requests to the gateway's own API to load and compile the request path.
+ * <p>
+ * Application runners complete before Spring Boot reports readiness, so the gateway is not sent traffic before it has
+ * warmed up or the warm-up budget has passed. The warm-up never fails the startup. Its duration is recorded as
+ * <code>gateway.warmup.duration</code> by outcome.
+ */
+@Component
+@ConditionalOnProperty(prefix = "gateway.warmup", name = "enabled", havingValue = "true")
+@Slf4j
+class GatewayWarmUp implements ApplicationRunner {
+
+    private static final int SAMPLE_IDS = 20;
+
+    private final WarmUpProperties properties;
+    private final CachingTaskClient taskClient;
+    private final CachingUserClient userClient;
+    private final ObjectProvider<AccessTokenManager> accessTokenManagerProvider;
+    private final DeadlineProperties deadlineProperties;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    GatewayWarmUp(WarmUpProperties properties, CachingTaskClient taskClient, CachingUserClient userClient,
+                  ObjectProvider<AccessTokenManager> accessTokenManagerProvider, DeadlineProperties deadlineProperties,
+                  Environment environment, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.taskClient = taskClient;
+        this.userClient = userClient;
+        this.accessTokenManagerProvider = accessTokenManagerProvider;
+        this.deadlineProperties = deadlineProperties;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Deadline deadline = Deadline.after(properties.budget());
+        long start = System.nanoTime();
+        CompletableFuture<Integer> warmUp = new CompletableFuture<>();
+        Thread.ofVirtual().name("gateway-warmup").start(() -> {
+            try (Deadline.Binding ignored = deadline.bind()) {
+                warmUp.complete(warmUp(deadline));
+            } catch (Throwable e) {
+                warmUp.completeExceptionally(e);
+            }
+        });
+
+        String outcome;
+        try {
+            int failedRequests = warmUp.get(properties.budget().toNanos(), TimeUnit.NANOSECONDS);
+            outcome = "completed";
+            log.info("Warm-up completed in {} ms, {} of {} synthetic requests failed",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failedRequests, properties.requests());
+        } catch (TimeoutException e) {
+            outcome = "budget-exceeded";
+            log.warn("Warm-up did not complete within its budget of {}, reporting readiness anyway", properties.budget());
+        } catch (ExecutionException e) {
+            outcome = "failed";
+            log.warn("Warm-up failed, reporting readiness anyway", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = "failed";
+        }
+        Timer.builder("gateway.warmup.duration")
+                .description("Duration of the warm-up phase at startup")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return The number of failed synthetic requests
+     */
+    private int warmUp(Deadline deadline) {
+        accessTokenManagerProvider.ifAvailable(AccessTokenManager::getToken);
+
+        List<String> taskIds = taskClient.prefetchAllTasks().stream().limit(SAMPLE_IDS).map(Task::id).toList();
+        List<String> userIds = userClient.prefetchAllUsers().stream().limit(SAMPLE_IDS).map(User::id).toList();
+
+        List<String> paths = syntheticRequestPaths(taskIds, userIds);
+        RestClient gateway = RestClient.builder().baseUrl(gatewayBaseUrl()).build();
+        AtomicInteger failedRequests = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            AtomicInteger nextRequest = new AtomicInteger();
+            for (int worker = 0; worker < properties.concurrency(); worker++) {
+                executor.execute(() -> {
+                    for (int request = nextRequest.getAndIncrement(); request < properties.requests() && !deadline.isExpired();
+                         request = nextRequest.getAndIncrement()) {
+                        if (!send(gateway, paths.get(request % paths.size()), deadline)) {
+                            failedRequests.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+        return failedRequests.get();
+    }
+
+    private static List<String> syntheticRequestPaths(List<String> taskIds, List<String> userIds) {
+        List<String> paths = new ArrayList<>(List.of("/api/task", "/api/task?limit=10", "/api/user", "/api/user?limit=10"));
+        taskIds.forEach(id -> paths.add("/api/task/" + id));
+        userIds.forEach(id -> paths.add("/api/user/" + id));
+        if (!taskIds.isEmpty()) {
+            paths.add("/api/task?ids=" + String.join(",", taskIds));
+        }
+        return paths;
+    }
+
+    private String gatewayBaseUrl() {
+        String contextPath = "reactive".equals(environment.getProperty("spring.main.web-application-type"))
+                ? environment.getProperty("spring.webflux.base-path", "")
+                : environment.getProperty("server.servlet.context-path", "");
+        return "http://localhost:" + environment.getRequiredProperty("local.server.port") + contextPath;
+    }
+
+    private boolean send(RestClient gateway, String path, Deadline deadline) {
+        try {
+            gateway.get()
+                    .uri(path)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header(deadlineProperties.header(), String.valueOf(Math.max(1, deadline.remaining().toMillis())))
+                    .retrieve()
+                    .toBodilessEntity();
+            return true;
+        } catch (RestClientException e) {
+            log.debug("Synthetic warm-up request {} failed", path, e);
+            return false;
+        }
+    }
+}
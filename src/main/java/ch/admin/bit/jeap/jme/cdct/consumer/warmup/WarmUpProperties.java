@@ -0,0 +1,22 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.warmup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the warm-up phase at startup.
+ *
+ * @param enabled     Whether the gateway warms up before it reports readiness
+ * @param budget      Maximum duration of the warm-up, readiness is reported once it has passed
+ * @param requests    Number of synthetic requests sent to the gateway's own API
+ * @param concurrency Number of synthetic requests sent concurrently
+ */
+@ConfigurationProperties(prefix = "gateway.warmup")
+public record WarmUpProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("30s") Duration budget,
+        @DefaultValue("500") int requests,
+        @DefaultValue("4") int concurrency) {
+}
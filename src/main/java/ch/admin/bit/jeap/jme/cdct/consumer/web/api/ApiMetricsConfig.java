@@ -0,0 +1,23 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Completes the recording of the response serialization time started by {@link SerializationMetrics}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+class ApiMetricsConfig implements WebMvcConfigurer {
+
+    private final SerializationMetrics serializationMetrics;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(serializationMetrics).addPathPatterns("/api/**");
+    }
+}
@@ -1,5 +1,6 @@
 package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
@@ -11,6 +12,7 @@ import org.springframework.security.web.SecurityFilterChain;
  * The consumers API is fully public for now
  */
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 class ApiSecurityConfig {
 
     @Bean
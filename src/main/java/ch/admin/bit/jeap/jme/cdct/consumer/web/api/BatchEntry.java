@@ -0,0 +1,30 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Result of the lookup of a single id within a batch.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchEntry<T>(String id, Status status, T value, String error) {
+
+    public enum Status {
+        FOUND, NOT_FOUND, FAILED, TIMED_OUT
+    }
+
+    static <T> BatchEntry<T> found(String id, T value) {
+        return new BatchEntry<>(id, Status.FOUND, value, null);
+    }
+
+    static <T> BatchEntry<T> notFound(String id) {
+        return new BatchEntry<>(id, Status.NOT_FOUND, null, null);
+    }
+
+    static <T> BatchEntry<T> failed(String id, String error) {
+        return new BatchEntry<>(id, Status.FAILED, null, error);
+    }
+
+    static <T> BatchEntry<T> timedOut(String id) {
+        return new BatchEntry<>(id, Status.TIMED_OUT, null, "Lookup did not complete within the batch deadline");
+    }
+}
@@ -0,0 +1,110 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.Deadline;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.DeadlineExceededException;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.NotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Fans the lookups of a batch of ids out over virtual threads. At most <code>gateway.batch.max-concurrency</code>
+ * lookups of a batch run at the same time. The lookups run with the batch deadline, <code>gateway.batch.deadline</code>
+ * cut short by the {@link Deadline} of the request. Lookups still running at the deadline are reported timed out but
+ * are not cancelled: they keep their slot and upstream connection until their upstream call, whose timeouts are cut to
+ * the deadline, ends. Lookups are never interrupted: an interrupted upstream call would count as an upstream failure
+ * and could fail a call shared with other requests.
+ */
+@Component
+@Slf4j
+class BatchLookup implements DisposableBean {
+
+    private final BatchProperties properties;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    BatchLookup(BatchProperties properties) {
+        this.properties = properties;
+    }
+
+    <T> List<BatchEntry<T>> lookup(List<String> ids, Function<String, T> lookupById) {
+        LinkedHashSet<String> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.isEmpty() || distinctIds.size() > properties.maxIds()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch must contain between 1 and " + properties.maxIds() + " ids");
+        }
+
+        Duration batchTimeout = Deadline.current()
+                .map(requestDeadline -> min(requestDeadline.remaining(), properties.deadline()))
+                .orElseGet(properties::deadline);
+        Deadline batchDeadline = Deadline.after(batchTimeout);
+        Semaphore permits = new Semaphore(properties.maxConcurrency());
+        Map<String, Future<T>> lookups = new LinkedHashMap<>();
+        for (String id : distinctIds) {
+            lookups.put(id, executor.submit(() -> {
+                try (Deadline.Binding ignored = batchDeadline.bind()) {
+                    if (!permits.tryAcquire(batchDeadline.remaining().toNanos(), TimeUnit.NANOSECONDS)) {
+                        throw new TimeoutException("No lookup slot free before the batch deadline");
+                    }
+                    try {
+                        batchDeadline.check();
+                        return lookupById.apply(id);
+                    } finally {
+                        permits.release();
+                    }
+                }
+            }));
+        }
+
+        List<BatchEntry<T>> entries = new ArrayList<>(lookups.size());
+        lookups.forEach((id, lookup) -> entries.add(await(id, lookup, batchDeadline)));
+        return entries;
+    }
+
+    private static Duration min(Duration first, Duration second) {
+        return first.compareTo(second) <= 0 ? first : second;
+    }
+
+    private static <T> BatchEntry<T> await(String id, Future<T> lookup, Deadline batchDeadline) {
+        try {
+            T value = lookup.get(batchDeadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+            return value != null ? BatchEntry.found(id, value) : BatchEntry.notFound(id);
+        } catch (TimeoutException e) {
+            // the lookup keeps running until its upstream call is cut off by the batch deadline
+            return BatchEntry.timedOut(id);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof NotFoundException) {
+                return BatchEntry.notFound(id);
+            }
+            if (e.getCause() instanceof TimeoutException || e.getCause() instanceof DeadlineExceededException) {
+                return BatchEntry.timedOut(id);
+            }
+            log.debug("Lookup of id {} in batch failed", id, e.getCause());
+            return BatchEntry.failed(id, "Upstream lookup failed: " + e.getCause().getClass().getSimpleName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return BatchEntry.timedOut(id);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,21 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the batch lookup endpoints.
+ *
+ * @param maxIds         Maximum number of ids accepted in one batch
+ * @param maxConcurrency Maximum number of upstream lookups running concurrently for one batch
+ * @param deadline       Time after which lookups of a batch that have not completed yet are reported timed out, their
+ *                       upstream calls are cut off by it
+ */
+@ConfigurationProperties(prefix = "gateway.batch")
+public record BatchProperties(
+        @DefaultValue("100") int maxIds,
+        @DefaultValue("16") int maxConcurrency,
+        @DefaultValue("5s") Duration deadline) {
+}
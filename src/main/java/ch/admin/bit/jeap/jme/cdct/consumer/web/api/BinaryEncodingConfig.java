@@ -0,0 +1,25 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.json.Encoding;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Lets callers of the API negotiate the binary {@link Encoding encodings} CBOR and Smile with the <code>Accept</code>
+ * header. The converters are registered after the JSON converter, so JSON remains the encoding of requests accepting
+ * any media type.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+class BinaryEncodingConfig implements WebMvcConfigurer {
+
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        builder.withCborConverter(new JacksonCborHttpMessageConverter())
+                .withSmileConverter(new JacksonSmileHttpMessageConverter());
+    }
+}
@@ -0,0 +1,58 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.Deadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Gives every API request a {@link Deadline} (see <code>gateway.deadline</code>), so that the upstream calls made for
+ * it are not sent or waited for after the caller has given up. Streamed responses have no deadline, as they last as
+ * long as the collection takes to transfer.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "gateway.deadline.enabled", havingValue = "true", matchIfMissing = true)
+class DeadlineConfig {
+
+    @Bean
+    FilterRegistrationBean<DeadlineFilter> apiDeadlineFilter(DeadlineProperties properties) {
+        FilterRegistrationBean<DeadlineFilter> registration = new FilterRegistrationBean<>(new DeadlineFilter(properties));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    static class DeadlineFilter extends OncePerRequestFilter {
+
+        private final DeadlineProperties properties;
+        private final RequestTimeouts requestTimeouts;
+
+        DeadlineFilter(DeadlineProperties properties) {
+            this.properties = properties;
+            this.requestTimeouts = new RequestTimeouts(properties);
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                throws ServletException, IOException {
+            if ("true".equals(request.getParameter("stream"))) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            Deadline deadline = Deadline.after(requestTimeouts.timeout(path, request.getHeader(properties.header())));
+            try (Deadline.Binding ignored = deadline.bind()) {
+                filterChain.doFilter(request, response);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.DeadlineExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers requests whose deadline passed before the upstream APIs answered with 504 Gateway Timeout.
+ */
+@RestControllerAdvice(assignableTypes = {TaskGatewayController.class, UserGatewayController.class})
+@Slf4j
+class DeadlineExceededAdvice {
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    ResponseEntity<ProblemDetail> deadlineExceeded(DeadlineExceededException e) {
+        log.debug("Giving up on request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.GATEWAY_TIMEOUT, e.getMessage()));
+    }
+}
@@ -0,0 +1,25 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Settings of the deadlines of API requests.
+ *
+ * @param enabled          Whether API requests get a deadline that bounds the upstream calls made for them
+ * @param header           Request header in which callers pass their timeout in milliseconds
+ * @param defaultTimeout   Timeout of requests without the header and without an endpoint timeout
+ * @param maxTimeout       Upper limit of the timeouts requested by callers
+ * @param endpointTimeouts Timeouts of requests without the header by path pattern, e.g. <code>/api/task/*</code>
+ */
+@ConfigurationProperties(prefix = "gateway.deadline")
+public record DeadlineProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("X-Request-Timeout") String header,
+        @DefaultValue("10s") Duration defaultTimeout,
+        @DefaultValue("30s") Duration maxTimeout,
+        @DefaultValue Map<String, Duration> endpointTimeouts) {
+}
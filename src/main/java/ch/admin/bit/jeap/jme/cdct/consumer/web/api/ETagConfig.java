@@ -0,0 +1,24 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * Derives an ETag from the body of every API response and answers requests with a matching
+ * <code>If-None-Match</code> header with 304 Not Modified, so polling clients do not download unchanged bodies again.
+ * Streamed responses opt out of this (see {@link NdjsonStreaming}), as computing the ETag requires buffering the body.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+class ETagConfig {
+
+    @Bean
+    FilterRegistrationBean<ShallowEtagHeaderFilter> apiETagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,172 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.json.Encoding;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the encoded response of the collection endpoints, so that polling the same collection version does not
+ * serialize it again. The bytes are written to the response as they are, together with an ETag and their length
+ * computed once per version. Larger responses are gzip compressed on the first request accepting it, and kept
+ * compressed from then on.
+ * <p>
+ * A collection version is a collection list instance, as served by the mirrors until their next sync and by the
+ * conditional provider requests while the provider answers 304, so recognizing it takes no work that grows with the
+ * size of the collection. Lists read from the provider again are encoded again. A list instance is only remembered as
+ * long as it is in use elsewhere, the kept bytes are limited by their total size.
+ * <p>
+ * Each {@link Projection} of a collection version is encoded and kept separately, as is each {@link Encoding}
+ * negotiated with the <code>Accept</code> header. JSON is used unless a binary encoding is preferred.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+class EncodedCollectionCache {
+
+    private static final String GZIP = "gzip";
+
+    private final ResponseCacheProperties properties;
+    private final Map<Encoding, ObjectWriter> writers = new EnumMap<>(Encoding.class);
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final Cache<List<?>, Long> versions;
+    private final Cache<Variant, Encoded> encodedCollections;
+
+    EncodedCollectionCache(ResponseCacheProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        for (Encoding encoding : Encoding.values()) {
+            writers.put(encoding, encoding.mapper(objectMapper).writer());
+        }
+        // weak keys are compared by identity
+        this.versions = Caffeine.newBuilder()
+                .weakKeys()
+                .build();
+        this.encodedCollections = Caffeine.newBuilder()
+                .maximumWeight(properties.maximumBytes().toBytes())
+                .<Variant, Encoded>weigher((variant, encoded) -> encoded.bytes().length)
+                .build();
+    }
+
+    <T> ResponseEntity<byte[]> respond(List<T> collection, Projection<T> projection, HttpServletRequest request) {
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+        Encoding encoding = negotiate(request);
+        if (!properties.enabled()) {
+            Encoded encoded = encode(projection.projectAll(collection), encoding);
+            return respond(compress(encoded, request) ? gzip(encoded) : encoded, encoding);
+        }
+        long version = versions.get(collection, list -> versionSequence.incrementAndGet());
+        Encoded encoded = encodedCollections.get(new Variant(version, projection, encoding, false),
+                variant -> encode(projection.projectAll(collection), encoding));
+        if (compress(encoded, request)) {
+            return respond(encodedCollections.get(new Variant(version, projection, encoding, true), variant -> gzip(encoded)), encoding);
+        }
+        return respond(encoded, encoding);
+    }
+
+    private ResponseEntity<byte[]> respond(Encoded encoded, Encoding encoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(encoding.mediaType());
+        if (properties.gzip()) {
+            response.varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        } else {
+            response.varyBy(HttpHeaders.ACCEPT);
+        }
+        if (encoded.gzipped()) {
+            response.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return response.eTag(encoded.eTag()).body(encoded.bytes());
+    }
+
+    private boolean compress(Encoded encoded, HttpServletRequest request) {
+        return properties.gzip() && encoded.bytes().length >= properties.gzipMinSize().toBytes() && acceptsGzip(request);
+    }
+
+    private Encoded encode(List<?> collection, Encoding encoding) {
+        byte[] bytes = writers.get(encoding).writeValueAsBytes(collection);
+        return new Encoded(bytes, DigestUtils.md5DigestAsHex(bytes), false);
+    }
+
+    private static Encoded gzip(Encoded encoded) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(encoded.bytes().length / 4);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+            gzipOutputStream.write(encoded.bytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Encoded(compressed.toByteArray(), encoded.eTag() + "-" + GZIP, true);
+    }
+
+    /**
+     * Picks the encoding with the highest quality in the <code>Accept</code> header, taking the quality of an encoding
+     * from the most specific media range including it. JSON wins ties and is used if the header is missing or invalid.
+     */
+    private static Encoding negotiate(HttpServletRequest request) {
+        List<MediaType> acceptedTypes;
+        try {
+            acceptedTypes = MediaType.parseMediaTypes(Collections.list(request.getHeaders(HttpHeaders.ACCEPT)));
+        } catch (InvalidMediaTypeException e) {
+            return Encoding.JSON;
+        }
+        Encoding negotiated = Encoding.JSON;
+        double negotiatedQuality = quality(Encoding.JSON, acceptedTypes);
+        for (Encoding encoding : Encoding.values()) {
+            double quality = quality(encoding, acceptedTypes);
+            if (quality > negotiatedQuality) {
+                negotiated = encoding;
+                negotiatedQuality = quality;
+            }
+        }
+        return negotiated;
+    }
+
+    private static double quality(Encoding encoding, List<MediaType> acceptedTypes) {
+        MediaType mostSpecific = null;
+        for (MediaType acceptedType : acceptedTypes) {
+            if (acceptedType.includes(encoding.mediaType())
+                    && (mostSpecific == null || specificity(acceptedType) > specificity(mostSpecific))) {
+                mostSpecific = acceptedType;
+            }
+        }
+        return mostSpecific == null ? 0 : mostSpecific.getQualityValue();
+    }
+
+    private static int specificity(MediaType mediaType) {
+        return (mediaType.isWildcardType() ? 0 : 2) + (mediaType.isWildcardSubtype() ? 0 : 1);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        for (String header : Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+            for (String coding : header.split(",")) {
+                String[] parameters = coding.split(";");
+                if (parameters[0].trim().equalsIgnoreCase(GZIP)) {
+                    return parameters.length == 1 || !parameters[1].replace(" ", "").matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    private record Variant(long version, Projection<?> projection, Encoding encoding, boolean gzipped) {
+    }
+
+    private record Encoded(byte[] bytes, String eTag, boolean gzipped) {
+    }
+}
@@ -0,0 +1,38 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SequenceWriter;
+
+import java.util.function.Consumer;
+
+/**
+ * Writes elements to the response as newline delimited JSON while they are being read from the provider. Writes
+ * block while the caller does not keep up, which in turn stops reading from the provider (backpressure).
+ * <p>
+ * Streamed responses are exempt from ETag generation, which would otherwise buffer the complete body.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+class NdjsonStreaming {
+
+    private final ObjectWriter writer;
+
+    NdjsonStreaming(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writer().withRootValueSeparator("\n");
+    }
+
+    <T> StreamingResponseBody stream(HttpServletRequest request, Consumer<Consumer<T>> source) {
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+        return outputStream -> {
+            try (SequenceWriter sequenceWriter = writer.writeValues(outputStream)) {
+                source.accept(sequenceWriter::write);
+            }
+        };
+    }
+}
@@ -0,0 +1,10 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import java.util.List;
+
+/**
+ * A page of a collection. The next page is requested by passing <code>nextCursor</code> as <code>cursor</code>,
+ * <code>nextCursor</code> is <code>null</code> on the last page.
+ */
+public record Page<T>(List<T> items, String nextCursor) {
+}
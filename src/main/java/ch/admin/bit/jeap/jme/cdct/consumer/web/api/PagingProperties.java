@@ -0,0 +1,18 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the paged collection endpoints.
+ *
+ * @param maxLimit    Maximum page size a caller may request
+ * @param snapshotTtl How long the snapshot of a collection version is kept after its last page has been requested
+ */
+@ConfigurationProperties(prefix = "gateway.paging")
+public record PagingProperties(
+        @DefaultValue("1000") int maxLimit,
+        @DefaultValue("1m") Duration snapshotTtl) {
+}
@@ -0,0 +1,75 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.io.SerializedString;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.annotation.JsonSerialize;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A subset of the fields of a resource, compiled once per field set by {@link Projections}. The field names are
+ * kept pre-encoded and the values are read with the resource's accessors, so writing a projected resource needs
+ * neither reflection nor intermediate maps.
+ * <p>
+ * The projection of all fields leaves the resources as they are.
+ */
+final class Projection<T> {
+
+    private final SerializedString[] names;
+    private final List<Function<T, String>> accessors;
+    private final boolean allFields;
+
+    Projection(List<String> names, List<Function<T, String>> accessors, boolean allFields) {
+        this.names = names.stream().map(SerializedString::new).toArray(SerializedString[]::new);
+        this.accessors = List.copyOf(accessors);
+        this.allFields = allFields;
+    }
+
+    Object project(T value) {
+        return allFields ? value : new Projected<>(value, this);
+    }
+
+    List<?> projectAll(List<T> values) {
+        return allFields ? values : values.stream().map(this::project).toList();
+    }
+
+    Page<?> projectPage(Page<T> page) {
+        return allFields ? page : new Page<>(projectAll(page.items()), page.nextCursor());
+    }
+
+    private void write(T value, JsonGenerator generator) {
+        generator.writeStartObject(value);
+        for (int i = 0; i < names.length; i++) {
+            generator.writeName(names[i]);
+            String fieldValue = accessors.get(i).apply(value);
+            if (fieldValue == null) {
+                generator.writeNull();
+            } else {
+                generator.writeString(fieldValue);
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * A resource to be written with a projection.
+     */
+    @JsonSerialize(using = ProjectedSerializer.class)
+    record Projected<T>(T value, Projection<T> projection) {
+
+        void write(JsonGenerator generator) {
+            projection.write(value, generator);
+        }
+    }
+
+    static final class ProjectedSerializer extends ValueSerializer<Projected<?>> {
+
+        @Override
+        public void serialize(Projected<?> projected, JsonGenerator generator, SerializationContext context) {
+            projected.write(generator);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.Task;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user.User;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The projections of a resource requested with the <code>fields</code> query parameter, e.g.
+ * <code>?fields=id,title</code>. A projection is compiled on the first request of its field set and reused for all
+ * following requests of the same set, regardless of the order the fields are listed in. Fields are always written in
+ * the order they are declared in.
+ */
+final class Projections<T> {
+
+    static final Projections<Task> TASK = new Projections<>("task",
+            List.of("id", "title", "content"),
+            List.of(Task::id, Task::title, Task::content));
+
+    static final Projections<User> USER = new Projections<>("user",
+            List.of("id", "name"),
+            List.of(User::id, User::name));
+
+    private final String resource;
+    private final List<String> names;
+    private final List<Function<T, String>> accessors;
+    private final Projection<T> allFields;
+    private final Map<Long, Projection<T>> compiled = new ConcurrentHashMap<>();
+
+    Projections(String resource, List<String> names, List<Function<T, String>> accessors) {
+        if (names.size() != accessors.size() || names.size() >= Long.SIZE) {
+            throw new IllegalArgumentException("Expected an accessor for each of at most " + (Long.SIZE - 1) + " fields");
+        }
+        this.resource = resource;
+        this.names = List.copyOf(names);
+        this.accessors = List.copyOf(accessors);
+        this.allFields = new Projection<>(names, accessors, true);
+    }
+
+    /**
+     * @param fields the requested fields, all fields if <code>null</code> or empty
+     * @throws ResponseStatusException 400 Bad Request if a field is not a field of the resource
+     */
+    Projection<T> forFields(List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return allFields;
+        }
+        long fieldSet = 0;
+        for (String field : fields) {
+            int index = names.indexOf(field.trim());
+            if (index < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Unknown " + resource + " field '" + field + "', expected one of " + String.join(", ", names));
+            }
+            fieldSet |= 1L << index;
+        }
+        if (fieldSet == (1L << names.size()) - 1) {
+            return allFields;
+        }
+        return compiled.computeIfAbsent(fieldSet, this::compile);
+    }
+
+    private Projection<T> compile(long fieldSet) {
+        List<String> projectedNames = new ArrayList<>();
+        List<Function<T, String>> projectedAccessors = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            if ((fieldSet & (1L << i)) != 0) {
+                projectedNames.add(names.get(i));
+                projectedAccessors.add(accessors.get(i));
+            }
+        }
+        return new Projection<>(projectedNames, projectedAccessors, false);
+    }
+}
@@ -0,0 +1,27 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.util.matcher.PathPatternParserServerWebExchangeMatcher;
+
+/**
+ * The consumers API is fully public for now, also when running as a reactive web application
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+class ReactiveApiSecurityConfig {
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 12)
+    SecurityWebFilterChain apiSecurityWebFilterChain(ServerHttpSecurity http) {
+        return http.securityMatcher(new PathPatternParserServerWebExchangeMatcher("/api/**"))
+                .authorizeExchange(authorizeExchange -> authorizeExchange
+                        .anyExchange().permitAll())
+                .build();
+    }
+}
@@ -0,0 +1,43 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cancels the handling of API requests, including their upstream calls, when their deadline has passed (see
+ * <code>gateway.deadline</code>). Requests whose caller disconnects are cancelled by the server anyway. As with the
+ * servlet variant, streamed responses have no deadline.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnProperty(name = "gateway.deadline.enabled", havingValue = "true", matchIfMissing = true)
+class ReactiveDeadlineFilter implements WebFilter {
+
+    private final DeadlineProperties properties;
+    private final RequestTimeouts requestTimeouts;
+
+    ReactiveDeadlineFilter(DeadlineProperties properties) {
+        this.properties = properties;
+        this.requestTimeouts = new RequestTimeouts(properties);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().pathWithinApplication().value();
+        if (!path.startsWith("/api/") || "true".equals(request.getQueryParams().getFirst("stream"))) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).timeout(
+                requestTimeouts.timeout(path, request.getHeaders().getFirst(properties.header())),
+                Mono.error(() -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Deadline of the request exceeded")));
+    }
+}
@@ -0,0 +1,82 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.CachingTaskClient;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.ReactiveTaskClient;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.Task;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Serves the task API on the event loop when the gateway runs as a reactive web application (profile
+ * <code>reactive</code>). Collections and lookups by id are passed through from the provider without blocking. Paging
+ * and batch lookups rely on the blocking task client and are offloaded to the bounded elastic scheduler.
+ */
+@RestController
+@RequestMapping("/api/task")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+class ReactiveTaskGatewayController {
+
+    private final ReactiveTaskClient reactiveTaskClient;
+    private final CachingTaskClient taskClient;
+    private final SnapshotPaging snapshotPaging;
+    private final BatchLookup batchLookup;
+
+    @GetMapping()
+    public Flux<?> getAllTasks(@RequestParam(name = "fields", required = false) List<String> fields) {
+        return reactiveTaskClient.getAllTasks().map(Projections.TASK.forFields(fields)::project);
+    }
+
+    @GetMapping(params = {"limit", "!ids"})
+    public Mono<Page<?>> getTaskPage(@RequestParam("limit") int limit, @RequestParam(name = "cursor", required = false) String cursor,
+                                     @RequestParam(name = "fields", required = false) List<String> fields,
+                                     @RequestParam(name = "stream", defaultValue = "false") boolean stream) {
+        if (stream) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A page cannot be streamed, omit stream");
+        }
+        Projection<Task> projection = Projections.TASK.forFields(fields);
+        return Mono.fromCallable(() -> projection.projectPage(snapshotPaging.page("task", cursor, limit, taskClient::getAllTasks)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping(params = {"stream=true", "!ids", "!limit"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<?> streamAllTasks(@RequestParam(name = "fields", required = false) List<String> fields) {
+        return reactiveTaskClient.getAllTasks().map(Projections.TASK.forFields(fields)::project);
+    }
+
+    @GetMapping(params = "ids")
+    public Mono<List<BatchEntry<Object>>> getTasks(@RequestParam("ids") List<String> ids,
+                                                   @RequestParam(name = "fields", required = false) List<String> fields,
+                                                   @RequestParam(name = "limit", required = false) String limit,
+                                                   @RequestParam(name = "cursor", required = false) String cursor,
+                                             @RequestParam(name = "stream", defaultValue = "false") boolean stream) {
+        if (limit != null || cursor != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A batch lookup cannot be paged, omit limit and cursor");
+        }
+        if (stream) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A batch lookup cannot be streamed, omit stream");
+        }
+        Projection<Task> projection = Projections.TASK.forFields(fields);
+        return Mono.fromCallable(() -> batchLookup.lookup(ids, id -> projection.project(taskClient.getTaskById(id))))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/{id}")
+    public Mono<?> getTask(@PathVariable("id") String id, @RequestParam(name = "fields", required = false) List<String> fields) {
+        return reactiveTaskClient.getTaskById(id).map(Projections.TASK.forFields(fields)::project);
+    }
+
+}
@@ -0,0 +1,63 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user.CachingUserClient;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user.ReactiveUserClient;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Serves the user API on the event loop when the gateway runs as a reactive web application (profile
+ * <code>reactive</code>). Paging relies on the blocking user client and is offloaded to the bounded elastic scheduler.
+ */
+@RestController
+@RequestMapping("/api/user")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+class ReactiveUserGatewayController {
+
+    private final ReactiveUserClient reactiveUserClient;
+    private final CachingUserClient userClient;
+    private final SnapshotPaging snapshotPaging;
+
+    @GetMapping()
+    public Flux<?> getAllUsers(@RequestParam(name = "fields", required = false) List<String> fields) {
+        return reactiveUserClient.getAllUsers().map(Projections.USER.forFields(fields)::project);
+    }
+
+    @GetMapping(params = "limit")
+    public Mono<Page<?>> getUserPage(@RequestParam("limit") int limit, @RequestParam(name = "cursor", required = false) String cursor,
+                                     @RequestParam(name = "fields", required = false) List<String> fields,
+                                     @RequestParam(name = "stream", defaultValue = "false") boolean stream) {
+        if (stream) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A page cannot be streamed, omit stream");
+        }
+        Projection<User> projection = Projections.USER.forFields(fields);
+        return Mono.fromCallable(() -> projection.projectPage(snapshotPaging.page("user", cursor, limit, userClient::getAllUsers)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping(params = {"stream=true", "!limit"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<?> streamAllUsers(@RequestParam(name = "fields", required = false) List<String> fields) {
+        return reactiveUserClient.getAllUsers().map(Projections.USER.forFields(fields)::project);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<?> getUser(@PathVariable("id") String id, @RequestParam(name = "fields", required = false) List<String> fields) {
+        return reactiveUserClient.getUserById(id).map(Projections.USER.forFields(fields)::project);
+    }
+
+}
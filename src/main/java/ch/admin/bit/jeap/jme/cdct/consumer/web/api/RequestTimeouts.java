@@ -0,0 +1,49 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Determines the timeout of an API request: the caller's timeout from the request header if there is a valid one,
+ * limited to <code>gateway.deadline.max-timeout</code>, otherwise the timeout of the first matching endpoint pattern
+ * or the default timeout.
+ */
+@Slf4j
+class RequestTimeouts {
+
+    private final DeadlineProperties properties;
+    private final Map<PathPattern, Duration> endpointTimeouts = new LinkedHashMap<>();
+
+    RequestTimeouts(DeadlineProperties properties) {
+        this.properties = properties;
+        properties.endpointTimeouts().forEach((pattern, timeout) ->
+                endpointTimeouts.put(PathPatternParser.defaultInstance.parse(pattern), timeout));
+    }
+
+    Duration timeout(String path, String headerValue) {
+        if (headerValue != null) {
+            try {
+                long millis = Long.parseLong(headerValue.trim());
+                if (millis > 0) {
+                    Duration requested = Duration.ofMillis(millis);
+                    return requested.compareTo(properties.maxTimeout()) < 0 ? requested : properties.maxTimeout();
+                }
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring invalid {} header '{}'", properties.header(), headerValue);
+            }
+        }
+        PathContainer pathContainer = PathContainer.parsePath(path);
+        for (Map.Entry<PathPattern, Duration> endpointTimeout : endpointTimeouts.entrySet()) {
+            if (endpointTimeout.getKey().matches(pathContainer)) {
+                return endpointTimeout.getValue();
+            }
+        }
+        return properties.defaultTimeout();
+    }
+}
@@ -0,0 +1,21 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings of the encoded response cache of the collection endpoints.
+ *
+ * @param enabled      Whether the encoded responses are kept for subsequent requests of the same collection version
+ * @param gzip         Whether responses are also kept gzip compressed for callers accepting it
+ * @param gzipMinSize  Minimum response size for gzip compression to be applied
+ * @param maximumBytes Maximum total size of the kept responses, compressed ones included
+ */
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public record ResponseCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("true") boolean gzip,
+        @DefaultValue("2KB") DataSize gzipMinSize,
+        @DefaultValue("64MB") DataSize maximumBytes) {
+}
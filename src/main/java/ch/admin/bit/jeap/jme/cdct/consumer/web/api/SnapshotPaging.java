@@ -0,0 +1,105 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Pages through collections fetched from the provider. The first page request fetches the collection once and keeps
+ * it as a short-lived snapshot, following pages are served from that snapshot. This keeps paging consistent while
+ * the provider's collection changes and avoids fetching the whole collection for every page.
+ * <p>
+ * Snapshots are kept per collection version, callers paging through an unchanged collection share one snapshot. A
+ * snapshot is dropped only once nobody has requested one of its pages for <code>gateway.paging.snapshot-ttl</code>,
+ * so a cursor stays valid as long as the caller keeps paging.
+ * <p>
+ * Cursors are opaque to callers, they encode the collection, the snapshot and the offset of the next page.
+ */
+@Component
+class SnapshotPaging {
+
+    private final PagingProperties properties;
+    private final Cache<String, Snapshot> snapshots;
+
+    SnapshotPaging(PagingProperties properties) {
+        this.properties = properties;
+        this.snapshots = Caffeine.newBuilder()
+                .expireAfterAccess(properties.snapshotTtl())
+                .build();
+    }
+
+    <T> Page<T> page(String collection, String cursor, int limit, Supplier<List<T>> source) {
+        if (limit < 1 || limit > properties.maxLimit()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + properties.maxLimit());
+        }
+
+        String snapshotId;
+        int offset;
+        Snapshot snapshot;
+        if (cursor == null) {
+            offset = 0;
+            List<T> elements = source.get();
+            snapshotId = collection + "-" + Integer.toHexString(elements.hashCode());
+            snapshot = new Snapshot(collection, elements);
+            if (elements.size() > limit) {
+                Snapshot shared = snapshots.asMap().putIfAbsent(snapshotId, snapshot);
+                if (shared != null && shared.elements().equals(elements)) {
+                    snapshot = shared;
+                } else if (shared != null) {
+                    // another version with the same hash code is kept already
+                    snapshotId = snapshotId + "-" + UUID.randomUUID();
+                    snapshots.put(snapshotId, snapshot);
+                }
+            }
+        } else {
+            Cursor decoded = Cursor.decode(cursor);
+            snapshotId = decoded.snapshotId();
+            offset = decoded.offset();
+            snapshot = snapshots.getIfPresent(snapshotId);
+            if (snapshot == null) {
+                throw new ResponseStatusException(HttpStatus.GONE, "The cursor has expired, start again with the first page");
+            }
+            if (!snapshot.collection().equals(collection) || offset < 0 || offset > snapshot.elements().size()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+
+        int end = Math.min(offset + limit, snapshot.elements().size());
+        @SuppressWarnings("unchecked")
+        List<T> items = (List<T>) snapshot.elements().subList(offset, end);
+        String nextCursor = end < snapshot.elements().size() ? new Cursor(snapshotId, end).encode() : null;
+        return new Page<>(items, nextCursor);
+    }
+
+    private record Snapshot(String collection, List<?> elements) {
+    }
+
+    private record Cursor(String snapshotId, int offset) {
+
+        private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+        private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+        String encode() {
+            return ENCODER.encodeToString((snapshotId + ":" + offset).getBytes(UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String decoded = new String(DECODER.decode(cursor), UTF_8);
+                int separator = decoded.lastIndexOf(':');
+                return new Cursor(decoded.substring(0, separator), Integer.parseInt(decoded.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+    }
+}
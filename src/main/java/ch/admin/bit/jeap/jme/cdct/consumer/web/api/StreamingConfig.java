@@ -0,0 +1,35 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Writes streamed responses ({@link StreamingResponseBody}) on virtual threads of their own. Spring MVC would write
+ * them with the application task executor otherwise, whose few pool threads would silently limit the number of
+ * concurrent streams. How long a stream may last is set with <code>spring.mvc.async.request-timeout</code>.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+class StreamingConfig implements WebMvcConfigurer, DisposableBean {
+
+    private final SimpleAsyncTaskExecutor streamingExecutor = new SimpleAsyncTaskExecutor("response-stream-");
+
+    StreamingConfig() {
+        streamingExecutor.setVirtualThreads(true);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingExecutor);
+    }
+
+    @Override
+    public void destroy() {
+        streamingExecutor.close();
+    }
+}
@@ -1,32 +1,89 @@
 package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
 
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.CachingTaskClient;
 import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.Task;
-import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.TaskClient;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/task")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 @RequiredArgsConstructor
 class TaskGatewayController {
 
-    private final TaskClient taskClient;
+    private final CachingTaskClient taskClient;
+    private final EncodedCollectionCache encodedCollectionCache;
+    private final NdjsonStreaming ndjsonStreaming;
+    private final SnapshotPaging snapshotPaging;
+    private final BatchLookup batchLookup;
 
     @GetMapping()
-    public List<Task> getAllTasks() {
-        return taskClient.getAllTasks();
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            array = @ArraySchema(schema = @Schema(implementation = Task.class))))
+    public ResponseEntity<byte[]> getAllTasks(@RequestParam(name = "fields", required = false) List<String> fields,
+                                              HttpServletRequest request) {
+        return encodedCollectionCache.respond(taskClient.getAllTasks(), Projections.TASK.forFields(fields), request);
+    }
+
+    @GetMapping(params = {"limit", "!ids"})
+    public Page<?> getTaskPage(@RequestParam("limit") int limit, @RequestParam(name = "cursor", required = false) String cursor,
+                             @RequestParam(name = "fields", required = false) List<String> fields,
+                             @RequestParam(name = "stream", defaultValue = "false") boolean stream) {
+        if (stream) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A page cannot be streamed, omit stream");
+        }
+        Projection<Task> projection = Projections.TASK.forFields(fields);
+        return projection.projectPage(snapshotPaging.page("task", cursor, limit, taskClient::getAllTasks));
+    }
+
+    @GetMapping(params = {"stream=true", "!ids", "!limit"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAllTasks(@RequestParam(name = "fields", required = false) List<String> fields,
+                                                HttpServletRequest request) {
+        Projection<Task> projection = Projections.TASK.forFields(fields);
+        return ndjsonStreaming.stream(request, consumer -> taskClient.streamAllTasks(task -> consumer.accept(projection.project(task))));
+    }
+
+    @GetMapping(params = "ids")
+    public List<BatchEntry<Object>> getTasks(@RequestParam("ids") List<String> ids,
+                                             @RequestParam(name = "fields", required = false) List<String> fields,
+                                             @RequestParam(name = "limit", required = false) String limit,
+                                             @RequestParam(name = "cursor", required = false) String cursor,
+                                             @RequestParam(name = "stream", defaultValue = "false") boolean stream) {
+        if (limit != null || cursor != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A batch lookup cannot be paged, omit limit and cursor");
+        }
+        if (stream) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A batch lookup cannot be streamed, omit stream");
+        }
+        Projection<Task> projection = Projections.TASK.forFields(fields);
+        return batchLookup.lookup(ids, id -> projection.project(taskClient.getTaskById(id)));
     }
 
     @GetMapping("/{id}")
-    public Task getTask(@PathVariable("id") String id) {
-        return taskClient.getTaskById(id);
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            schema = @Schema(implementation = Task.class)))
+    public Object getTask(@PathVariable("id") String id, @RequestParam(name = "fields", required = false) List<String> fields) {
+        Projection<Task> projection = Projections.TASK.forFields(fields);
+        return projection.project(taskClient.getTaskById(id));
     }
 
 }
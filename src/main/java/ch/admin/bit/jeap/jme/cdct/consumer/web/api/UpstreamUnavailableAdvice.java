@@ -0,0 +1,28 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience.UpstreamUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers requests that could not be served because an upstream API rejected calls with 503 Service Unavailable,
+ * telling the caller when to retry.
+ */
+@RestControllerAdvice(assignableTypes = {TaskGatewayController.class, UserGatewayController.class,
+        ReactiveTaskGatewayController.class, ReactiveUserGatewayController.class})
+@Slf4j
+class UpstreamUnavailableAdvice {
+
+    @ExceptionHandler(UpstreamUnavailableException.class)
+    ResponseEntity<ProblemDetail> upstreamUnavailable(UpstreamUnavailableException e) {
+        log.debug("Rejecting request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+    }
+}
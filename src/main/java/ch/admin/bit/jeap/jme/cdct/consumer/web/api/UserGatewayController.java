@@ -1,32 +1,72 @@
 package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
 
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user.CachingUserClient;
 import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user.User;
-import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user.UserClient;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/user")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 @RequiredArgsConstructor
 class UserGatewayController {
 
-    private final UserClient userClient;
+    private final CachingUserClient userClient;
+    private final EncodedCollectionCache encodedCollectionCache;
+    private final NdjsonStreaming ndjsonStreaming;
+    private final SnapshotPaging snapshotPaging;
 
     @GetMapping()
-    public List<User> getAllUsers() {
-        return userClient.getAllUsers();
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            array = @ArraySchema(schema = @Schema(implementation = User.class))))
+    public ResponseEntity<byte[]> getAllUsers(@RequestParam(name = "fields", required = false) List<String> fields,
+                                              HttpServletRequest request) {
+        return encodedCollectionCache.respond(userClient.getAllUsers(), Projections.USER.forFields(fields), request);
+    }
+
+    @GetMapping(params = "limit")
+    public Page<?> getUserPage(@RequestParam("limit") int limit, @RequestParam(name = "cursor", required = false) String cursor,
+                             @RequestParam(name = "fields", required = false) List<String> fields,
+                             @RequestParam(name = "stream", defaultValue = "false") boolean stream) {
+        if (stream) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A page cannot be streamed, omit stream");
+        }
+        Projection<User> projection = Projections.USER.forFields(fields);
+        return projection.projectPage(snapshotPaging.page("user", cursor, limit, userClient::getAllUsers));
+    }
+
+    @GetMapping(params = {"stream=true", "!limit"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAllUsers(@RequestParam(name = "fields", required = false) List<String> fields,
+                                                HttpServletRequest request) {
+        Projection<User> projection = Projections.USER.forFields(fields);
+        return ndjsonStreaming.stream(request, consumer -> userClient.streamAllUsers(user -> consumer.accept(projection.project(user))));
     }
 
     @GetMapping("/{id}")
-    public User getUser(@PathVariable("id") String id) {
-        return userClient.getUserById(id);
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            schema = @Schema(implementation = User.class)))
+    public Object getUser(@PathVariable("id") String id, @RequestParam(name = "fields", required = false) List<String> fields) {
+        Projection<User> projection = Projections.USER.forFields(fields);
+        return projection.project(userClient.getUserById(id));
     }
 
 }
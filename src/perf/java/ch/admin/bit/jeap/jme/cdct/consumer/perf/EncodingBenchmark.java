@@ -0,0 +1,73 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.perf;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.json.Encoding;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Encoding and decoding of large task collections in JSON and the binary encodings CBOR and Smile. The payload size
+ * of each encoding is printed when the benchmark is set up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncodingBenchmark {
+
+    private static final TypeReference<List<Task>> TASK_LIST = new TypeReference<>() {
+    };
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public Encoding encoding;
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private ObjectMapper mapper;
+    private List<Task> tasks;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper jsonMapper = JsonMapper.builder().build();
+        StringJoiner joiner = new StringJoiner(",", "[", "]");
+        for (int id = 0; id < size; id++) {
+            joiner.add(StubProvider.taskJson(id));
+        }
+        tasks = jsonMapper.readValue(joiner.toString().getBytes(UTF_8), TASK_LIST);
+        mapper = encoding.mapper(jsonMapper);
+        encoded = mapper.writeValueAsBytes(tasks);
+        System.out.printf("%n%s, %d tasks: %d bytes%n", encoding, size, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encodeTasks() {
+        return mapper.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public List<Task> decodeTasks() {
+        return mapper.readValue(encoded, TASK_LIST);
+    }
+}
@@ -0,0 +1,101 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.perf;
+
+import ch.admin.bit.jeap.jme.cdct.ConsumerApplication;
+import ch.admin.bit.jeap.security.test.client.configuration.JeapOAuth2IntegrationTestClientConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests through the gateway's controllers and clients against the in-process {@link StubProvider}, once per
+ * combination of the gateway's caching layers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class GatewayBenchmark {
+
+    private static final String CONTEXT_PATH = "/jme-cdct-segregated-consumer-service";
+
+    @Param({"1000"})
+    public int collectionSize;
+
+    /**
+     * <code>direct</code>: every lookup calls the provider, <code>coalescing</code>: concurrent lookups of the same
+     * id share a call, <code>cache</code>: by-id cache enabled, <code>mirror</code>: lookups served from the mirror
+     */
+    @Param({"direct", "coalescing", "cache", "mirror"})
+    public String layers;
+
+    private StubProvider stubProvider;
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+
+    @Setup
+    public void setUp() throws IOException {
+        stubProvider = new StubProvider(collectionSize);
+        context = new SpringApplicationBuilder(ConsumerApplication.class, JeapOAuth2IntegrationTestClientConfiguration.class)
+                .properties(
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        "task-api-url=" + stubProvider.taskApiUrl(),
+                        "user-api-url=" + stubProvider.userApiUrl(),
+                        "gateway.coalescing.enabled=" + !layers.equals("direct"),
+                        "gateway.cache.task.enabled=" + layers.equals("cache"),
+                        "gateway.mirror.task.enabled=" + layers.equals("mirror"))
+                .run();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + CONTEXT_PATH;
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        httpClient.close();
+        context.close();
+        stubProvider.close();
+    }
+
+    @Benchmark
+    public byte[] taskById() throws IOException, InterruptedException {
+        return get("/api/task/" + ThreadLocalRandom.current().nextInt(collectionSize));
+    }
+
+    @Benchmark
+    public byte[] allTasks() throws IOException, InterruptedException {
+        return get("/api/task");
+    }
+
+    private byte[] get(String path) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " answered with " + response.statusCode());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,66 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.perf;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.HdrHistogram.Histogram;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Records the durations of the garbage collections of this JVM, as reported by the collectors' notifications. For
+ * concurrent collectors the durations include concurrent phases, which do not pause the application.
+ */
+final class GcMonitor implements AutoCloseable {
+
+    private final Histogram durations = new Histogram(3);
+    private final List<NotificationEmitter> emitters;
+    private final NotificationListener listener = (notification, handback) -> {
+        if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            recordDuration(info.getGcInfo().getDuration());
+        }
+    };
+
+    GcMonitor() {
+        emitters = ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .filter(NotificationEmitter.class::isInstance)
+                .map(NotificationEmitter.class::cast)
+                .toList();
+        emitters.forEach(emitter -> emitter.addNotificationListener(listener, null, null));
+    }
+
+    private synchronized void recordDuration(long millis) {
+        durations.recordValue(millis);
+    }
+
+    synchronized void reset() {
+        durations.reset();
+    }
+
+    synchronized void report(PrintStream out) {
+        out.printf("GC: %d collections, total %d ms, p99 %d ms, max %d ms%n", durations.getTotalCount(),
+                Math.round(durations.getMean() * durations.getTotalCount()), durations.getValueAtPercentile(99),
+                durations.getMaxValue());
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            out.printf("    %s: %d collections, %d ms since JVM start%n", collector.getName(), collector.getCollectionCount(),
+                    collector.getCollectionTime());
+        }
+    }
+
+    @Override
+    public void close() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(listener);
+            } catch (ListenerNotFoundException e) {
+                // already removed
+            }
+        }
+    }
+}
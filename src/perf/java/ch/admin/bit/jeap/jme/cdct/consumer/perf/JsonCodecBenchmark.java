@@ -0,0 +1,108 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.perf;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.Task;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Serialization and deserialization of task and user collections of different sizes. The deserialization of tasks is
+ * compared with reflective databinding into a mutable bean, run with <code>-prof gc</code> to compare the allocation
+ * rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    private static final TypeReference<List<Task>> TASK_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<User>> USER_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<TaskBean>> TASK_BEAN_LIST = new TypeReference<>() {
+    };
+
+    @Param({"1", "100", "10000"})
+    public int size;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private byte[] taskJson;
+    private byte[] userJson;
+    private List<Task> tasks;
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        taskJson = collectionJson(StubProvider::taskJson);
+        userJson = collectionJson(StubProvider::userJson);
+        tasks = objectMapper.readValue(taskJson, TASK_LIST);
+        users = objectMapper.readValue(userJson, USER_LIST);
+    }
+
+    private byte[] collectionJson(IntFunction<String> elementJson) {
+        StringJoiner joiner = new StringJoiner(",", "[", "]");
+        for (int id = 0; id < size; id++) {
+            joiner.add(elementJson.apply(id));
+        }
+        return joiner.toString().getBytes(UTF_8);
+    }
+
+    @Benchmark
+    public List<Task> deserializeTasks() {
+        return objectMapper.readValue(taskJson, TASK_LIST);
+    }
+
+    @Benchmark
+    public List<TaskBean> deserializeTaskBeans() {
+        return objectMapper.readValue(taskJson, TASK_BEAN_LIST);
+    }
+
+    @Benchmark
+    public byte[] serializeTasks() {
+        return objectMapper.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public List<User> deserializeUsers() {
+        return objectMapper.readValue(userJson, USER_LIST);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    /**
+     * The task model as it was before it became a record with its own deserializer.
+     */
+    public static class TaskBean {
+        public String id;
+        public String title;
+        public String content;
+    }
+}
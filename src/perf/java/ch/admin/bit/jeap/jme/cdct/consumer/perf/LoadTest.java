@@ -0,0 +1,160 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.perf;
+
+import ch.admin.bit.jeap.jme.cdct.ConsumerApplication;
+import ch.admin.bit.jeap.security.test.client.configuration.JeapOAuth2IntegrationTestClientConfiguration;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test of the gateway on one machine without network: starts a {@link PactStubProvider} replaying the consumer
+ * pacts and the gateway in this JVM, then sends requests for the replayed resources to the gateway at a fixed rate
+ * (open model). Latencies are measured from the time a request was scheduled, so a stalling gateway is not hidden by
+ * requests that were sent late (coordinated omission).
+ * <p>
+ * Arguments, all optional: <code>rps=500 duration=30s warmup=10s latency=5ms jitter=5ms error-rate=0
+ * pacts=target/pacts</code>. Any further <code>gateway.*</code> or <code>spring.*</code> argument is passed to the
+ * gateway.
+ */
+public final class LoadTest {
+
+    static final String CONTEXT_PATH = "/jme-cdct-segregated-consumer-service";
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final HttpClient httpClient;
+    private final List<URI> targets;
+    private final Recorder latencies = new Recorder(MAX_LATENCY_NANOS, 3);
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+
+    private LoadTest(HttpClient httpClient, List<URI> targets) {
+        this.httpClient = httpClient;
+        this.targets = targets;
+    }
+
+    static void main(String[] args) throws IOException {
+        Map<String, String> arguments = parseArguments(args);
+        int rps = Integer.parseInt(arguments.getOrDefault("rps", "500"));
+        Duration duration = duration(arguments.getOrDefault("duration", "30s"));
+        Duration warmup = duration(arguments.getOrDefault("warmup", "10s"));
+
+        try (PactStubProvider provider = new PactStubProvider(Path.of(arguments.getOrDefault("pacts", "target/pacts")),
+                duration(arguments.getOrDefault("latency", "5ms")), duration(arguments.getOrDefault("jitter", "5ms")),
+                Double.parseDouble(arguments.getOrDefault("error-rate", "0")));
+             ConfigurableApplicationContext gateway = startGateway(provider, arguments);
+             HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+             GcMonitor gcMonitor = new GcMonitor()) {
+
+            String gatewayUrl = "http://localhost:" + gateway.getEnvironment().getProperty("local.server.port") + CONTEXT_PATH;
+            List<URI> targets = provider.paths().stream().map(path -> URI.create(gatewayUrl + path)).toList();
+            System.out.printf("Replaying %d resources at %d requests/s: %s%n", targets.size(), rps, provider.paths());
+
+            new LoadTest(httpClient, targets).run(rps, warmup);
+            gcMonitor.reset();
+            LoadTest measurement = new LoadTest(httpClient, targets);
+            long start = System.nanoTime();
+            measurement.run(rps, duration);
+            measurement.report(System.nanoTime() - start);
+            gcMonitor.report(System.out);
+        }
+    }
+
+    static ConfigurableApplicationContext startGateway(PactStubProvider provider, Map<String, String> arguments) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(ConsumerApplication.class,
+                JeapOAuth2IntegrationTestClientConfiguration.class)
+                .properties(
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        "task-api-url=" + provider.baseUrl() + "/api/task",
+                        "user-api-url=" + provider.baseUrl() + "/api/user");
+        arguments.forEach((key, value) -> {
+            if (key.startsWith("gateway.") || key.startsWith("spring.")) {
+                builder.properties(key + "=" + value);
+            }
+        });
+        return builder.run();
+    }
+
+    private void run(int rps, Duration duration) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long requests = duration.toNanos() / intervalNanos;
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < requests; i++) {
+                long scheduledAt = start + i * intervalNanos;
+                LockSupport.parkNanos(scheduledAt - System.nanoTime());
+                URI target = targets.get((int) (i % targets.size()));
+                executor.execute(() -> send(target, scheduledAt));
+            }
+        }
+    }
+
+    private void send(URI target, long scheduledAt) {
+        try {
+            HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(target).build(), HttpResponse.BodyHandlers.discarding());
+            statusCounts.computeIfAbsent(response.statusCode(), status -> new LongAdder()).increment();
+        } catch (IOException e) {
+            failures.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.increment();
+        }
+        latencies.recordValue(Math.min(System.nanoTime() - scheduledAt, MAX_LATENCY_NANOS));
+    }
+
+    private void report(long elapsedNanos) {
+        Histogram histogram = latencies.getIntervalHistogram();
+        long total = histogram.getTotalCount();
+        long errors = failures.sum() + statusCounts.entrySet().stream()
+                .filter(entry -> entry.getKey() >= 400)
+                .mapToLong(entry -> entry.getValue().sum())
+                .sum();
+        System.out.printf("Throughput: %.1f requests/s (%d requests)%n", total * 1e9 / elapsedNanos, total);
+        System.out.printf("Errors: %.3f%% (%d), status codes: %s, I/O failures: %d%n", total == 0 ? 0 : errors * 100.0 / total,
+                errors, new TreeMap<>(statusCounts), failures.sum());
+        System.out.printf("Latency [ms]: p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n",
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+        histogram.outputPercentileDistribution(System.out, 1e6);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    static Duration duration(String value) {
+        return DurationStyle.detectAndParse(value);
+    }
+
+    static Map<String, String> parseArguments(String[] args) {
+        Map<String, String> arguments = new TreeMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            arguments.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return arguments;
+    }
+}
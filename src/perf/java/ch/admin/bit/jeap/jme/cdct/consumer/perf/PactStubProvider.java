@@ -0,0 +1,123 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.perf;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * In-process stand-in for the provider replaying the successful interactions of this consumer's pact files
+ * (generated by the consumer pact tests into <code>target/pacts</code>). Responses are delayed by the configured
+ * latency plus a random jitter, and the configured share of requests is answered with 503 Service Unavailable.
+ */
+public final class PactStubProvider implements AutoCloseable {
+
+    /**
+     * Context path of the provider in the pact interactions.
+     */
+    public static final String PROVIDER_CONTEXT_PATH = "/jme-cdct-segregated-provider-service";
+
+    private final Map<String, Response> responses;
+    private final Duration latency;
+    private final Duration jitter;
+    private final double errorRate;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PactStubProvider(Path pactDirectory, Duration latency, Duration jitter, double errorRate) throws IOException {
+        this.responses = readInteractions(pactDirectory);
+        if (responses.isEmpty()) {
+            throw new IllegalStateException("No successful GET interactions found in " + pactDirectory.toAbsolutePath() +
+                    ", run the consumer pact tests first");
+        }
+        this.latency = latency;
+        this.jitter = jitter;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext(PROVIDER_CONTEXT_PATH, this::handle);
+        server.start();
+    }
+
+    private static Map<String, Response> readInteractions(Path pactDirectory) throws IOException {
+        ObjectMapper objectMapper = JsonMapper.builder().build();
+        Map<String, Response> responses = new LinkedHashMap<>();
+        try (Stream<Path> pactFiles = Files.list(pactDirectory)) {
+            for (Path pactFile : pactFiles.filter(file -> file.toString().endsWith(".json")).sorted().toList()) {
+                for (JsonNode interaction : objectMapper.readTree(pactFile.toFile()).path("interactions")) {
+                    JsonNode request = interaction.path("request");
+                    JsonNode response = interaction.path("response");
+                    int status = response.path("status").asInt();
+                    if (request.path("method").asString().equals("GET") && status >= 200 && status < 300) {
+                        JsonNode body = response.path("body").path("content");
+                        responses.putIfAbsent(request.path("path").asString(),
+                                new Response(status, body.isMissingNode() ? new byte[0] : objectMapper.writeValueAsBytes(body)));
+                    }
+                }
+            }
+        }
+        return responses;
+    }
+
+    /**
+     * @return The paths of the replayed interactions, relative to the provider's context path
+     */
+    public List<String> paths() {
+        List<String> paths = new ArrayList<>();
+        responses.keySet().forEach(path -> paths.add(path.substring(PROVIDER_CONTEXT_PATH.length())));
+        return paths;
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + PROVIDER_CONTEXT_PATH;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        sleep(latency.plusNanos(jitter.isZero() ? 0 : ThreadLocalRandom.current().nextLong(jitter.toNanos())));
+        Response response = ThreadLocalRandom.current().nextDouble() < errorRate
+                ? new Response(503, new byte[0])
+                : responses.getOrDefault(exchange.getRequestURI().getPath(), new Response(404, new byte[0]));
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(response.status(), response.body().length == 0 ? -1 : response.body().length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(response.body());
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private record Response(int status, byte[] body) {
+    }
+}
@@ -0,0 +1,166 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.perf;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Measures the time from launching the gateway to its first successful response, for the application built by the
+ * <code>fast-startup</code> Maven profile: started on a plain JVM, with the Spring AOT-processed bean definitions, and
+ * with the AOT-processed bean definitions plus the JVM AOT cache of the training run. Each mode is launched as a
+ * separate process against the {@link PactStubProvider}, with the OAuth2 client getting its tokens from a stub token
+ * endpoint, and reports the median and the fastest of the runs.
+ * <p>
+ * Arguments, all optional: <code>runs=5 timeout=60s directory=target/fast-startup pacts=target/pacts</code>.
+ */
+public final class StartupBenchmark {
+
+    private static final String TOKEN_PATH = "/oauth/token";
+    private static final byte[] TOKEN_RESPONSE = """
+            {"access_token":"startup-benchmark","token_type":"Bearer","expires_in":3600}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> arguments = LoadTest.parseArguments(args);
+        int runs = Integer.parseInt(arguments.getOrDefault("runs", "5"));
+        Duration timeout = LoadTest.duration(arguments.getOrDefault("timeout", "60s"));
+        Path directory = Path.of(arguments.getOrDefault("directory", "target/fast-startup")).toAbsolutePath();
+        Path pacts = Path.of(arguments.getOrDefault("pacts", "target/pacts"));
+        String jar = applicationJar(directory);
+
+        HttpServer tokenEndpoint = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        tokenEndpoint.createContext(TOKEN_PATH, StartupBenchmark::issueToken);
+        tokenEndpoint.start();
+        try (PactStubProvider provider = new PactStubProvider(pacts, Duration.ZERO, Duration.ZERO, 0);
+             HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build()) {
+            String tokenUri = "http://localhost:" + tokenEndpoint.getAddress().getPort() + TOKEN_PATH;
+            for (Mode mode : Mode.values()) {
+                if (mode.aotCache && !Files.exists(directory.resolve("application.aot"))) {
+                    System.out.printf("%s: skipped, no AOT cache in %s%n", mode.label, directory);
+                    continue;
+                }
+                List<Duration> startups = new ArrayList<>();
+                for (int run = 0; run < runs; run++) {
+                    startups.add(timeToFirstResponse(mode, directory, jar, provider, tokenUri, httpClient, timeout));
+                }
+                startups.sort(null);
+                System.out.printf("%s: median %d ms, fastest %d ms to the first successful request (%d runs)%n",
+                        mode.label, startups.get(startups.size() / 2).toMillis(), startups.getFirst().toMillis(), runs);
+            }
+        } finally {
+            tokenEndpoint.stop(0);
+        }
+    }
+
+    private static Duration timeToFirstResponse(Mode mode, Path directory, String jar, PactStubProvider provider,
+                                                String tokenUri, HttpClient httpClient, Duration timeout)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>(List.of("java"));
+        if (mode.aotCache) {
+            command.add("-XX:AOTCache=application.aot");
+        }
+        if (mode.aot) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.addAll(List.of("-jar", jar,
+                "--spring.profiles.active=local",
+                "--server.port=" + port,
+                "--logging.level.root=WARN",
+                "--spring.security.oauth2.client.registration.jme-cdct-segregated-consumer-service.provider=startup-benchmark",
+                "--spring.security.oauth2.client.provider.startup-benchmark.token-uri=" + tokenUri,
+                "--task-api-url=" + provider.baseUrl() + "/api/task",
+                "--user-api-url=" + provider.baseUrl() + "/api/user"));
+        URI target = URI.create("http://localhost:" + port + LoadTest.CONTEXT_PATH + provider.paths().getFirst());
+
+        long start = System.nanoTime();
+        Process gateway = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long deadline = start + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!gateway.isAlive()) {
+                    throw new IllegalStateException(mode.label + ": gateway exited with " + gateway.exitValue());
+                }
+                if (isSuccessful(httpClient, target)) {
+                    return Duration.ofNanos(System.nanoTime() - start);
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(mode.label + ": no successful response within " + timeout);
+        } finally {
+            gateway.destroy();
+            gateway.waitFor();
+        }
+    }
+
+    private static boolean isSuccessful(HttpClient httpClient, URI target) throws InterruptedException {
+        try {
+            return httpClient.send(HttpRequest.newBuilder(target).build(), HttpResponse.BodyHandlers.discarding())
+                    .statusCode() == 200;
+        } catch (IOException e) {
+            // not listening yet
+            return false;
+        }
+    }
+
+    private static String applicationJar(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No application jar found in " + directory +
+                            ", build it with ./mvnw -Pfast-startup package first"));
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void issueToken(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, TOKEN_RESPONSE.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(TOKEN_RESPONSE);
+        }
+    }
+
+    private enum Mode {
+        JVM("Plain JVM", false, false),
+        AOT("Spring AOT", true, false),
+        AOT_CACHE("Spring AOT + JVM AOT cache", true, true);
+
+        private final String label;
+        private final boolean aot;
+        private final boolean aotCache;
+
+        Mode(String label, boolean aot, boolean aotCache) {
+            this.label = label;
+            this.aot = aot;
+            this.aotCache = aotCache;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.perf;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * In-process stand-in for the provider's task and user APIs, serving generated collections with ids 0 to n-1.
+ */
+public final class StubProvider implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public StubProvider(int collectionSize) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/api/task", new CollectionHandler("/api/task", collectionSize, StubProvider::taskJson)::handle);
+        server.createContext("/api/user", new CollectionHandler("/api/user", collectionSize, StubProvider::userJson)::handle);
+        server.start();
+    }
+
+    public String taskApiUrl() {
+        return baseUrl() + "/api/task";
+    }
+
+    public String userApiUrl() {
+        return baseUrl() + "/api/user";
+    }
+
+    private String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * A task as the provider sends it, including the tag and creation time the consumer ignores.
+     */
+    public static String taskJson(int id) {
+        return "{\"id\":\"" + id + "\",\"title\":\"title-" + id + "\",\"content\":\"content of task " + id +
+                "\",\"tag\":\"tag-" + id % 10 + "\",\"createdAt\":\"2025-01-01T00:00:00Z\"}";
+    }
+
+    /**
+     * A user as the provider sends it, including the tag and creation time the consumer ignores.
+     */
+    public static String userJson(int id) {
+        return "{\"id\":\"" + id + "\",\"name\":\"user-" + id +
+                "\",\"tag\":\"tag-" + id % 10 + "\",\"createdAt\":\"2025-01-01T00:00:00Z\"}";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private static final class CollectionHandler {
+
+        private final String path;
+        private final int size;
+        private final IntFunction<String> elementJson;
+        private final byte[] collection;
+
+        CollectionHandler(String path, int size, IntFunction<String> elementJson) {
+            this.path = path;
+            this.size = size;
+            this.elementJson = elementJson;
+            StringJoiner joiner = new StringJoiner(",", "[", "]");
+            for (int id = 0; id < size; id++) {
+                joiner.add(elementJson.apply(id));
+            }
+            this.collection = joiner.toString().getBytes(UTF_8);
+        }
+
+        void handle(HttpExchange exchange) throws IOException {
+            String requestPath = exchange.getRequestURI().getPath();
+            if (requestPath.equals(path)) {
+                respond(exchange, 200, collection);
+                return;
+            }
+            try {
+                int id = Integer.parseInt(requestPath.substring(path.length() + 1));
+                if (id >= 0 && id < size) {
+                    respond(exchange, 200, elementJson.apply(id).getBytes(UTF_8));
+                    return;
+                }
+            } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+                // answered with 404 below
+            }
+            respond(exchange, 404, new byte[0]);
+        }
+
+        private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        }
+    }
+}
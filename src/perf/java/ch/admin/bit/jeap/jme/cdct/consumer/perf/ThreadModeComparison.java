@@ -0,0 +1,130 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.perf;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the gateway with platform request threads (Tomcat's pool) and with virtual request threads
+ * (<code>spring.threads.virtual.enabled</code>): a fixed number of concurrent clients keep requesting resources from the
+ * gateway while the {@link PactStubProvider} answers with a fixed latency, i.e. the gateway is almost purely waiting
+ * for I/O. Reports the throughput, the mean latency and, with all requests in flight, the number of live platform
+ * threads and the heap retained per in-flight request (which includes the stacks of virtual threads, but not the
+ * native stacks of platform threads). Only 2xx responses count as completed requests, other responses and I/O failures
+ * are reported as errors.
+ * <p>
+ * Arguments, all optional: <code>concurrency=1000 duration=20s warmup=10s latency=50ms pacts=target/pacts</code>.
+ * The connection pools and bulkheads are sized to the concurrency, so that they do not limit either mode.
+ */
+public final class ThreadModeComparison {
+
+    static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> arguments = LoadTest.parseArguments(args);
+        int concurrency = Integer.parseInt(arguments.getOrDefault("concurrency", "1000"));
+        Duration duration = LoadTest.duration(arguments.getOrDefault("duration", "20s"));
+        Duration warmup = LoadTest.duration(arguments.getOrDefault("warmup", "10s"));
+        Duration latency = LoadTest.duration(arguments.getOrDefault("latency", "50ms"));
+        Path pacts = Path.of(arguments.getOrDefault("pacts", "target/pacts"));
+
+        for (boolean virtualThreads : List.of(false, true)) {
+            try (PactStubProvider provider = new PactStubProvider(pacts, latency, Duration.ZERO, 0);
+                 ConfigurableApplicationContext gateway = LoadTest.startGateway(provider, Map.of(
+                         "spring.threads.virtual.enabled", String.valueOf(virtualThreads),
+                         "gateway.coalescing.enabled", "false",
+                         "gateway.http.task.max-connections", String.valueOf(concurrency),
+                         "gateway.http.user.max-connections", String.valueOf(concurrency),
+                         "gateway.resilience.task.max-concurrent-calls", String.valueOf(concurrency),
+                         "gateway.resilience.user.max-concurrent-calls", String.valueOf(concurrency)));
+                 HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+
+                String gatewayUrl = "http://localhost:" + gateway.getEnvironment().getProperty("local.server.port") + LoadTest.CONTEXT_PATH;
+                List<URI> targets = provider.paths().stream().map(path -> URI.create(gatewayUrl + path)).toList();
+                run(httpClient, targets, concurrency, warmup, null);
+                long idleHeap = heapAfterGc();
+                Measurement measurement = new Measurement();
+                run(httpClient, targets, concurrency, duration, measurement);
+
+                System.out.printf("%s threads: %.1f requests/s, mean latency %.1f ms, %d errors, %d live threads, %.1f KB heap per in-flight request%n",
+                        virtualThreads ? "Virtual" : "Platform",
+                        measurement.completed.sum() / (double) duration.toSeconds(),
+                        measurement.latencyNanos.sum() / 1e6 / Math.max(1, measurement.completed.sum()),
+                        measurement.errors.sum(),
+                        measurement.liveThreads,
+                        (measurement.heapUnderLoad - idleHeap) / 1024.0 / concurrency);
+            }
+        }
+    }
+
+    private static void run(HttpClient httpClient, List<URI> targets, int concurrency, Duration duration,
+                            Measurement measurement) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < concurrency; client++) {
+                URI target = targets.get(client % targets.size());
+                clients.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        boolean successful = send(httpClient, target);
+                        if (measurement == null) {
+                            continue;
+                        }
+                        if (successful) {
+                            measurement.completed.increment();
+                            measurement.latencyNanos.add(System.nanoTime() - start);
+                        } else {
+                            measurement.errors.increment();
+                        }
+                    }
+                });
+            }
+            if (measurement != null) {
+                TimeUnit.NANOSECONDS.sleep(duration.toNanos() / 2);
+                measurement.liveThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+                measurement.heapUnderLoad = heapAfterGc();
+            }
+        }
+    }
+
+    /**
+     * @return Whether the gateway answered with a 2xx status
+     */
+    private static boolean send(HttpClient httpClient, URI target) {
+        try {
+            HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(target).build(), HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static long heapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static final class Measurement {
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private int liveThreads;
+        private long heapUnderLoad;
+    }
+}
@@ -0,0 +1,94 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.NotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ByIdCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<String, String> loader = id -> id + "-" + loads.incrementAndGet();
+
+    @Test
+    void get_whenEnabled_thenLoadsEachIdOnceAndRecordsHitsAndMisses() {
+        ByIdCache<String> cache = new ByIdCache<>("test", settings(true), loader, meterRegistry);
+
+        assertThat(cache.get("1")).isEqualTo("1-1");
+        assertThat(cache.get("1")).isEqualTo("1-1");
+        assertThat(cache.get("2")).isEqualTo("2-2");
+
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "test").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "test").tag("result", "miss").functionCounter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void get_whenDisabled_thenEveryLookupIsPassedToTheLoader() {
+        ByIdCache<String> cache = new ByIdCache<>("test", settings(false), loader, meterRegistry);
+
+        assertThat(cache.get("1")).isEqualTo("1-1");
+        assertThat(cache.get("1")).isEqualTo("1-2");
+        assertThat(cache.isEnabled()).isFalse();
+        assertThat(meterRegistry.find("cache.gets").meters()).isEmpty();
+    }
+
+    @Test
+    void seed_whenEnabled_thenSeededEntitiesAreServedWithoutLoading() {
+        ByIdCache<String> cache = new ByIdCache<>("test", settings(true), loader, meterRegistry);
+
+        cache.seed(List.of("1-seeded", "2-seeded"), entity -> entity.substring(0, 1));
+
+        assertThat(cache.get("1")).isEqualTo("1-seeded");
+        assertThat(cache.get("2")).isEqualTo("2-seeded");
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void get_whenEntityIsDeletedUpstreamBeforeRefresh_thenItIsRemoved() throws InterruptedException {
+        AtomicBoolean deleted = new AtomicBoolean();
+        ByIdCache<String> cache = new ByIdCache<>("test",
+                new CacheProperties.Settings(true, Duration.ofMinutes(5), Duration.ofMillis(20), 100), id -> {
+                    if (deleted.get()) {
+                        throw new DeletedException(id);
+                    }
+                    return loader.apply(id);
+                }, meterRegistry);
+        assertThat(cache.get("1")).isEqualTo("1-1");
+        deleted.set(true);
+        Thread.sleep(50);
+
+        // served stale while the refresh runs in the background, then removed by it
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (true) {
+            try {
+                assertThat(cache.get("1")).isEqualTo("1-1");
+            } catch (DeletedException e) {
+                break;
+            }
+            assertThat(System.nanoTime()).as("entity not removed in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static CacheProperties.Settings settings(boolean enabled) {
+        return new CacheProperties.Settings(enabled, Duration.ofMinutes(5), Duration.ofMinutes(1), 100);
+    }
+
+    private static class DeletedException extends NotFoundException {
+
+        DeletedException(String id) {
+            super("Deleted " + id, id);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConditionalResponseCacheTest {
+
+    private final ConditionalResponseCache<String> cache = new ConditionalResponseCache<>(new ConditionalRequestProperties(true, 100));
+    private final List<HttpHeaders> sentHeaders = new ArrayList<>();
+
+    @Test
+    void fetch_whenProviderAnswersNotModified_thenRememberedBodyIsReturned() {
+        fetch(ResponseEntity.ok().eTag("\"v1\"").body("body-1"));
+
+        String body = fetch(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+
+        assertThat(body).isEqualTo("body-1");
+        assertThat(sentHeaders.get(0).getIfNoneMatch()).isEmpty();
+        assertThat(sentHeaders.get(1).getIfNoneMatch()).containsExactly("\"v1\"");
+    }
+
+    @Test
+    void fetch_whenProviderAnswersWithNewBody_thenNewValidatorIsSentNextTime() {
+        fetch(ResponseEntity.ok().eTag("\"v1\"").body("body-1"));
+        String body = fetch(ResponseEntity.ok().eTag("\"v2\"").body("body-2"));
+        fetch(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+
+        assertThat(body).isEqualTo("body-2");
+        assertThat(sentHeaders.get(2).getIfNoneMatch()).containsExactly("\"v2\"");
+    }
+
+    @Test
+    void fetch_whenOnlyLastModifiedIsKnown_thenRequestIsConditionalOnModificationDate() {
+        fetch(ResponseEntity.ok().lastModified(1_000_000L).body("body-1"));
+
+        String body = fetch(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+
+        assertThat(body).isEqualTo("body-1");
+        assertThat(sentHeaders.get(1).getIfModifiedSince()).isEqualTo(1_000_000L);
+    }
+
+    @Test
+    void fetch_whenResponseHasNoValidators_thenNothingIsRemembered() {
+        fetch(ResponseEntity.ok().body("body-1"));
+        fetch(ResponseEntity.ok().body("body-2"));
+
+        assertThat(sentHeaders.get(1).getIfNoneMatch()).isEmpty();
+        assertThat(sentHeaders.get(1).getIfModifiedSince()).isEqualTo(-1);
+    }
+
+    private String fetch(ResponseEntity<String> response) {
+        return cache.fetch("1", validators -> {
+            HttpHeaders headers = new HttpHeaders();
+            validators.accept(headers);
+            sentHeaders.add(headers);
+            return response;
+        });
+    }
+}
@@ -0,0 +1,66 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NegativeCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void isKnownMissing_whenIdWasRecordedMissing_thenItIsKnownUntilItAppearsInTheCollection() {
+        NegativeCache negativeCache = negativeCache(false);
+
+        negativeCache.recordMissing("1");
+        assertThat(negativeCache.isKnownMissing("1")).isTrue();
+        assertThat(negativeCache.isKnownMissing("2")).isFalse();
+
+        negativeCache.recordAll(List.of("1", "3"), Function.identity());
+        assertThat(negativeCache.isKnownMissing("1")).isFalse();
+        assertThat(hits("cache")).isEqualTo(1);
+    }
+
+    @Test
+    void isKnownMissing_whenBloomFilterIsEnabled_thenIdsNotInTheLastCollectionAreKnownMissing() {
+        NegativeCache negativeCache = negativeCache(true);
+        List<String> ids = IntStream.range(0, 10_000).mapToObj(Integer::toString).toList();
+
+        negativeCache.recordAll(ids, Function.identity());
+
+        assertThat(ids).noneMatch(negativeCache::isKnownMissing);
+        long missedMissingIds = IntStream.range(10_000, 20_000)
+                .mapToObj(Integer::toString)
+                .filter(id -> !negativeCache.isKnownMissing(id))
+                .count();
+        assertThat(missedMissingIds).isLessThan(300);
+        assertThat(hits("bloom-filter")).isEqualTo(10_000 - missedMissingIds);
+    }
+
+    @Test
+    void isKnownMissing_whenDisabled_thenNoIdIsKnownMissing() {
+        NegativeCache negativeCache = new NegativeCache("test", new NegativeCacheProperties.Settings(
+                false, Duration.ofMinutes(1), 100, true, Duration.ofMinutes(1), 0.01), meterRegistry);
+
+        negativeCache.recordMissing("1");
+        negativeCache.recordAll(List.of("2"), Function.identity());
+
+        assertThat(negativeCache.isKnownMissing("1")).isFalse();
+        assertThat(negativeCache.isKnownMissing("3")).isFalse();
+    }
+
+    private NegativeCache negativeCache(boolean bloomFilter) {
+        return new NegativeCache("test", new NegativeCacheProperties.Settings(
+                true, Duration.ofMinutes(1), 100, bloomFilter, Duration.ofMinutes(1), 0.01), meterRegistry);
+    }
+
+    private double hits(String source) {
+        return meterRegistry.get("gateway.negative-cache.hits").tag("source", source).counter().count();
+    }
+}
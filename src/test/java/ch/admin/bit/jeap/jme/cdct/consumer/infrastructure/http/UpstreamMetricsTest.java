@@ -0,0 +1,75 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+
+import static ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http.UpstreamMetrics.Operation.GET_ALL;
+import static ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.http.UpstreamMetrics.Operation.GET_BY_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class UpstreamMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UpstreamMetrics metrics = new UpstreamMetrics("test", meterRegistry);
+
+    @Test
+    void record_whenCallSucceeds_thenCallAndPhasesAreRecordedWithStatus() {
+        String result = metrics.record(GET_BY_ID, () -> exchange(HttpStatus.OK, "{\"id\":\"1\"}"));
+
+        assertThat(result).isEqualTo("body");
+        assertThat(meterRegistry.get("gateway.upstream.requests")
+                .tags("operation", "getById", "outcome", "SUCCESS", "status", "200").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.upstream.ttfb").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.upstream.deserialization").tag("operation", "getById").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.upstream.payload").summary().totalAmount()).isEqualTo(10);
+    }
+
+    @Test
+    void record_whenCallFailsWithResponse_thenStatusOfResponseIsRecorded() {
+        assertThatExceptionOfType(HttpServerErrorException.class).isThrownBy(() -> metrics.record(GET_ALL, () -> {
+            exchange(HttpStatus.BAD_GATEWAY, "");
+            throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+        }));
+
+        assertThat(meterRegistry.get("gateway.upstream.requests")
+                .tags("operation", "getAll", "outcome", "SERVER_ERROR", "status", "502").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void record_whenNoResponseIsReceived_thenIoErrorIsRecorded() {
+        metrics.record(GET_BY_ID, () -> exchange(HttpStatus.OK, "{}"));
+
+        assertThatExceptionOfType(ResourceAccessException.class).isThrownBy(() -> metrics.record(GET_BY_ID, () -> {
+            throw new ResourceAccessException("connection refused");
+        }));
+
+        assertThat(meterRegistry.get("gateway.upstream.requests")
+                .tags("operation", "getById", "outcome", "IO_ERROR", "status", "none").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.upstream.deserialization").tag("operation", "getById").timer().count()).isEqualTo(1);
+    }
+
+    private String exchange(HttpStatus status, String body) {
+        MockClientHttpResponse response = new MockClientHttpResponse(body.getBytes(), status);
+        response.getHeaders().setContentLength(body.length());
+        try {
+            ClientHttpResponse intercepted = metrics.intercept(new MockClientHttpRequest(HttpMethod.GET, URI.create("/1")), new byte[0],
+                    (request, requestBody) -> response);
+            assertThat(intercepted).isSameAs(response);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return "body";
+    }
+}
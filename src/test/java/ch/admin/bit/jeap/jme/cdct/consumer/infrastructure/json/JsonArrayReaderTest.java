@@ -0,0 +1,149 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.json;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.Task;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class JsonArrayReaderTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+    private final JsonArrayReader jsonArrayReader = new JsonArrayReader(objectMapper);
+
+    @Test
+    void read_handsEachElementToTheConsumer() {
+        List<Task> tasks = new ArrayList<>();
+
+        long count = jsonArrayReader.read(new GeneratedTaskArray(3), Task.class, tasks::add);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(tasks).extracting(Task::id).containsExactly("0", "1", "2");
+    }
+
+    @Test
+    void read_whenContentTypeIsBinary_thenReadsTheArrayInThatEncoding() {
+        byte[] cbor = Encoding.CBOR.mapper(objectMapper).writeValueAsBytes(
+                objectMapper.readValue("[{\"id\":\"0\",\"title\":\"t\",\"content\":\"c\"}]", Object.class));
+        List<Task> tasks = new ArrayList<>();
+
+        long count = jsonArrayReader.read(new ByteArrayInputStream(cbor), MediaType.APPLICATION_CBOR, Task.class, tasks::add);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(tasks).extracting(Task::title).containsExactly("t");
+    }
+
+    @Test
+    void read_whenBodyIsEmpty_thenReadsNothing() {
+        assertThat(jsonArrayReader.read(new ByteArrayInputStream(new byte[0]), Task.class, task -> {
+        })).isZero();
+    }
+
+    @Test
+    void read_whenBodyIsNoArray_thenFails() {
+        InputStream object = new ByteArrayInputStream("{\"id\":\"1\"}".getBytes(UTF_8));
+
+        assertThatIllegalStateException().isThrownBy(() -> jsonArrayReader.read(object, Task.class, task -> {
+        }));
+    }
+
+    /**
+     * Runs in its own surefire execution with a small heap (see pom.xml): the streamed array is several hundred
+     * megabytes large and only fits if elements are read and written one at a time.
+     */
+    @Test
+    @Tag("low-memory")
+    void read_streamsMillionsOfElementsWithConstantMemory() {
+        CountingOutputStream target = new CountingOutputStream();
+        long count;
+
+        try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(target)) {
+            count = jsonArrayReader.read(new GeneratedTaskArray(3_000_000), Task.class, writer::write);
+        }
+
+        assertThat(count).isEqualTo(3_000_000);
+        assertThat(target.bytes).isGreaterThan(300_000_000L);
+    }
+
+    /**
+     * Generates a JSON array of tasks on the fly, without ever holding more than one element in memory.
+     */
+    private static final class GeneratedTaskArray extends InputStream {
+
+        private static final String CONTENT = "x".repeat(64);
+
+        private final int size;
+        private int nextElement = 0;
+        private byte[] chunk = "[".getBytes(UTF_8);
+        private int position = 0;
+
+        private GeneratedTaskArray(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int read() {
+            if (position == chunk.length && !nextChunk()) {
+                return -1;
+            }
+            return chunk[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (position == chunk.length && !nextChunk()) {
+                return -1;
+            }
+            int count = Math.min(length, chunk.length - position);
+            System.arraycopy(chunk, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        private boolean nextChunk() {
+            if (nextElement > size) {
+                return false;
+            }
+            if (nextElement == size) {
+                chunk = "]".getBytes(UTF_8);
+            } else {
+                String separator = nextElement == 0 ? "" : ",";
+                chunk = (separator + "{\"id\":\"" + nextElement + "\",\"title\":\"title-" + nextElement +
+                        "\",\"content\":\"" + CONTENT + "\"}").getBytes(UTF_8);
+            }
+            nextElement++;
+            position = 0;
+            return true;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            bytes += length;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.mirror;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience.ResilienceProperties;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience.UpstreamResilience;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MirrorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicReference<List<String>> collection = new AtomicReference<>(List.of("1-a", "2-b"));
+
+    @Test
+    void byIdAndAll_whenNotSyncedYet_thenAreEmpty() {
+        Mirror<String> mirror = mirror(Duration.ofMinutes(5));
+
+        assertThat(mirror.all()).isEmpty();
+        assertThat(mirror.byId("1")).isEmpty();
+    }
+
+    @Test
+    void byIdAndAll_whenSynced_thenServeTheLatestSnapshot() {
+        Mirror<String> mirror = mirror(Duration.ofMinutes(5));
+
+        mirror.sync();
+        collection.set(List.of("3-c"));
+        assertThat(mirror.byId("1")).contains("1-a");
+
+        mirror.sync();
+        assertThat(mirror.byId("1")).isEmpty();
+        assertThat(mirror.all()).contains(List.of("3-c"));
+        assertThat(meterRegistry.get("gateway.mirror.sync").tag("outcome", "success").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("gateway.mirror.size").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void sync_whenSourceFails_thenKeepsThePreviousSnapshot() {
+        Mirror<String> mirror = mirror(Duration.ofMinutes(5));
+        mirror.sync();
+
+        collection.set(null);
+        mirror.sync();
+
+        assertThat(mirror.byId("2")).contains("2-b");
+        assertThat(meterRegistry.get("gateway.mirror.sync").tag("outcome", "failure").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sync_whenCircuitBreakerIsOpen_thenIsSkipped() {
+        UpstreamResilience resilience = new UpstreamResilience("test", new ResilienceProperties.Settings(
+                true, 1, 1, Duration.ZERO, 50, Duration.ofSeconds(5), 100, Duration.ofSeconds(30), 2, Duration.ofMinutes(1), 1),
+                meterRegistry);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        Mirror<String> mirror = new Mirror<>("test", new MirrorProperties.Settings(true, Duration.ofMinutes(1), Duration.ofMinutes(5)),
+                () -> resilience.call(() -> {
+                    upstreamCalls.incrementAndGet();
+                    throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+                }), element -> element, meterRegistry);
+
+        mirror.sync();
+        mirror.sync();
+        mirror.sync();
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(meterRegistry.get("gateway.mirror.sync").tag("outcome", "failure").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("gateway.mirror.sync").tag("outcome", "skipped").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void byIdAndAll_whenMirrorIsStale_thenAreEmpty() throws InterruptedException {
+        Mirror<String> mirror = mirror(Duration.ofMillis(20));
+        mirror.sync();
+
+        Thread.sleep(50);
+
+        assertThat(mirror.all()).isEmpty();
+        assertThat(mirror.byId("1")).isEmpty();
+    }
+
+    private Mirror<String> mirror(Duration maxStaleness) {
+        Function<String, String> idOf = element -> element.substring(0, element.indexOf('-'));
+        return new Mirror<>("test", new MirrorProperties.Settings(true, Duration.ofMinutes(1), maxStaleness),
+                collection::get, idOf, meterRegistry);
+    }
+}
@@ -0,0 +1,111 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UpstreamResilienceTest {
+
+    private static final ResilienceProperties.Settings SETTINGS = new ResilienceProperties.Settings(
+            true, 1, 1, Duration.ZERO, 50, Duration.ofSeconds(5), 100, Duration.ofSeconds(30), 2, Duration.ofMinutes(1), 1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UpstreamResilience resilience = new UpstreamResilience("test", SETTINGS, meterRegistry);
+
+    @Test
+    void call_whenServerErrorsExceedThreshold_thenCircuitOpensAndCallsAreRejected() {
+        failWith(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR));
+        failWith(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+
+        assertThatExceptionOfType(UpstreamUnavailableException.class)
+                .isThrownBy(() -> resilience.call(() -> "not called"))
+                .satisfies(e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofMinutes(1)));
+        assertThat(meterRegistry.get("gateway.resilience.circuit.state").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.resilience.circuit.transitions").tag("to", "open").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.resilience.rejected").tag("reason", "circuit-open").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void call_whenClientErrors_thenCircuitStaysClosed() {
+        failWith(HttpClientErrorException.create(HttpStatus.FORBIDDEN, "Forbidden", null, null, null));
+        failWith(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        assertThat(resilience.call(() -> "result")).isEqualTo("result");
+    }
+
+    @Test
+    void call_whenRejected_thenFallbackIsUsedIfPresent() {
+        failWith(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR));
+        failWith(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR));
+
+        assertThat(resilience.call(() -> "not called", () -> Optional.of("fallback"))).isEqualTo("fallback");
+        assertThatExceptionOfType(UpstreamUnavailableException.class)
+                .isThrownBy(() -> resilience.call(() -> "not called", Optional::empty));
+    }
+
+    @Test
+    void call_whenBulkheadIsFull_thenCallIsRejected() throws Exception {
+        CountDownLatch callStarted = new CountDownLatch(1);
+        CountDownLatch releaseCall = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> blockingCall = executor.submit(() -> resilience.call(() -> {
+                callStarted.countDown();
+                awaitUninterruptibly(releaseCall);
+                return "result";
+            }));
+            callStarted.await();
+
+            assertThatExceptionOfType(UpstreamUnavailableException.class).isThrownBy(() -> resilience.call(() -> "rejected"));
+            releaseCall.countDown();
+            assertThat(blockingCall.get()).isEqualTo("result");
+        }
+        assertThat(meterRegistry.get("gateway.resilience.rejected").tag("reason", "bulkhead-full").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void stream_whenStreamBulkheadIsFull_thenStreamIsRejectedButCallsAreNot() throws Exception {
+        CountDownLatch streamStarted = new CountDownLatch(1);
+        CountDownLatch releaseStream = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> blockingStream = executor.submit(() -> resilience.stream(() -> {
+                streamStarted.countDown();
+                awaitUninterruptibly(releaseStream);
+            }));
+            streamStarted.await();
+
+            assertThatExceptionOfType(UpstreamUnavailableException.class).isThrownBy(() -> resilience.stream(() -> {
+            }));
+            assertThat(resilience.call(() -> "result")).isEqualTo("result");
+            releaseStream.countDown();
+            blockingStream.get();
+        }
+        assertThat(meterRegistry.get("gateway.resilience.rejected").tag("reason", "bulkhead-full").counter().count()).isEqualTo(1);
+    }
+
+    private void failWith(RuntimeException failure) {
+        assertThatThrownBy(() -> resilience.call(() -> {
+            throw failure;
+        })).isSameAs(failure);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.resilience;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class UpstreamRetryTest {
+
+    private static final RetryProperties.Settings SETTINGS = new RetryProperties.Settings(
+            true, 3, Duration.ofMillis(1), 2, Duration.ofMillis(5), 10);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UpstreamRetry retry = new UpstreamRetry("test", SETTINGS, meterRegistry);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void call_whenTransientErrorsAreFollowedBySuccess_thenResultIsReturned() {
+        String result = retry.call(() -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            if (calls.get() == 2) {
+                throw new ResourceAccessException("Connection reset");
+            }
+            return "result";
+        });
+
+        assertThat(result).isEqualTo("result");
+        assertThat(calls).hasValue(3);
+        assertThat(retryCount()).isEqualTo(2);
+    }
+
+    @Test
+    void call_whenErrorIsNotTransient_thenItIsNotRetried() {
+        assertThatExceptionOfType(InsufficientAuthenticationException.class).isThrownBy(() -> retry.call(() -> {
+            calls.incrementAndGet();
+            throw new InsufficientAuthenticationException("Insufficient authentication");
+        }));
+        assertThatExceptionOfType(HttpServerErrorException.class).isThrownBy(() -> retry.call(() -> {
+            calls.incrementAndGet();
+            throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+        }));
+
+        assertThat(calls).hasValue(2);
+        assertThat(retryCount()).isZero();
+    }
+
+    @Test
+    void call_whenAllAttemptsFail_thenLastFailureIsThrown() {
+        assertThatExceptionOfType(HttpServerErrorException.class).isThrownBy(() -> retry.call(() -> {
+            calls.incrementAndGet();
+            throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+        }));
+
+        assertThat(calls).hasValue(SETTINGS.maxAttempts());
+    }
+
+    @Test
+    void call_whenBudgetIsExhausted_thenFailuresAreNotRetried() {
+        for (int i = 0; i < 20; i++) {
+            assertThatExceptionOfType(ResourceAccessException.class).isThrownBy(() -> retry.call(() -> {
+                calls.incrementAndGet();
+                throw new ResourceAccessException("Connection refused");
+            }));
+        }
+
+        // The 10 saved retries and one more earned by the calls, at 10% of a retry per call
+        assertThat(retryCount()).isEqualTo(11);
+        assertThat(calls).hasValue(20 + 11);
+        assertThat(meterRegistry.get("gateway.retry.budget.exhausted").counter().count()).isPositive();
+    }
+
+    @Test
+    void call_whenDeadlineHasPassed_thenFailureIsNotRetried() {
+        try (Deadline.Binding ignored = Deadline.after(Duration.ZERO).bind()) {
+            assertThatExceptionOfType(ResourceAccessException.class).isThrownBy(() -> retry.call(() -> {
+                calls.incrementAndGet();
+                throw new ResourceAccessException("Read timed out");
+            }));
+        }
+
+        assertThat(calls).hasValue(1);
+    }
+
+    private double retryCount() {
+        return meterRegistry.get("gateway.retry.sent").counter().count();
+    }
+}
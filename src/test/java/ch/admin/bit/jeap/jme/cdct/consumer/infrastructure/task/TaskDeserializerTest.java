@@ -0,0 +1,48 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.DatabindException;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class TaskDeserializerTest {
+
+    private static final TypeReference<List<Task>> TASK_LIST = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    @Test
+    void deserialize_skipsTheFieldsTheConsumerIgnores() {
+        String json = """
+                [{"id":"1","tag":{"name":"urgent","labels":["a","b"]},"title":"Title","createdAt":"2025-01-01T00:00:00Z",
+                  "content":"Content"}]""";
+
+        List<Task> tasks = objectMapper.readValue(json, TASK_LIST);
+
+        assertThat(tasks).containsExactly(new Task("1", "Title", "Content"));
+    }
+
+    @Test
+    void deserialize_whenValuesRepeat_thenTheyShareOneInstance() {
+        String json = "{\"id\":\"1\",\"title\":\"Repeated title\",\"content\":\"Content\"}";
+
+        Task first = objectMapper.readValue(json, Task.class);
+        Task second = objectMapper.readValue(json, Task.class);
+
+        assertThat(second.id()).isSameAs(first.id());
+        assertThat(second.title()).isSameAs(first.title());
+    }
+
+    @Test
+    void deserialize_whenRequiredFieldIsMissing_thenFails() {
+        assertThatExceptionOfType(DatabindException.class)
+                .isThrownBy(() -> objectMapper.readValue("{\"id\":\"1\",\"title\":\"Title\"}", Task.class));
+    }
+}
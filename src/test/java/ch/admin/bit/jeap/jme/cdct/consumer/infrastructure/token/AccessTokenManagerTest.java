@@ -0,0 +1,42 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.token;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessTokenManagerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final AccessTokenManager accessTokenManager = new AccessTokenManager(
+            new InMemoryClientRegistrationRepository(ClientRegistration.withRegistrationId("test")
+                    .clientId("test")
+                    .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                    .tokenUri("http://localhost/token")
+                    .build()),
+            new TokenProperties("test", true, Duration.ofMinutes(1), Duration.ofSeconds(5)),
+            new SimpleMeterRegistry());
+
+    @Test
+    void refreshDelay_whenLifetimeIsLongerThanTwiceTheMargin_thenRefreshesTheMarginBeforeExpiry() {
+        assertThat(accessTokenManager.refreshDelay(token(Duration.ofMinutes(10)), NOW)).isEqualTo(Duration.ofMinutes(9));
+    }
+
+    @Test
+    void refreshDelay_whenLifetimeIsShorterThanTheMargin_thenRefreshesHalfwayThroughTheLifetime() {
+        assertThat(accessTokenManager.refreshDelay(token(Duration.ofSeconds(40)), NOW)).isEqualTo(Duration.ofSeconds(20));
+        assertThat(accessTokenManager.refreshDelay(token(Duration.ofSeconds(90)), NOW)).isEqualTo(Duration.ofSeconds(45));
+    }
+
+    private static OAuth2AccessToken token(Duration lifetime) {
+        return new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "token", NOW, NOW.plus(lifetime));
+    }
+}
@@ -0,0 +1,56 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+
+class DeadlineTest {
+
+    @Test
+    void bind_whenBindingIsClosed_thenPreviousDeadlineIsRestored() {
+        Deadline outer = Deadline.after(Duration.ofSeconds(10));
+        Deadline inner = Deadline.after(Duration.ofSeconds(1));
+
+        try (Deadline.Binding ignored = outer.bind()) {
+            try (Deadline.Binding ignoredToo = inner.bind()) {
+                assertThat(Deadline.current()).containsSame(inner);
+            }
+            assertThat(Deadline.current()).containsSame(outer);
+        }
+        assertThat(Deadline.current()).isEmpty();
+    }
+
+    @Test
+    void propagate_whenCallRunsOnOtherThread_thenItRunsWithTheCallersDeadline() throws Exception {
+        Deadline deadline = Deadline.after(Duration.ofSeconds(10));
+        Supplier<Optional<Deadline>> call;
+        try (Deadline.Binding ignored = deadline.bind()) {
+            call = Deadline.propagate(Deadline::current);
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            assertThat(CompletableFuture.supplyAsync(call, executor).get()).containsSame(deadline);
+            assertThat(CompletableFuture.supplyAsync(Deadline::current, executor).get()).isEmpty();
+        }
+    }
+
+    @Test
+    void check_whenDeadlineHasPassed_thenThrows() {
+        Deadline passed = Deadline.after(Duration.ZERO);
+        Deadline pending = Deadline.after(Duration.ofSeconds(10));
+
+        assertThat(passed.remaining()).isZero();
+        assertThatExceptionOfType(DeadlineExceededException.class).isThrownBy(passed::check);
+        assertThat(pending.remaining()).isPositive();
+        assertThatNoException().isThrownBy(pending::check);
+    }
+}
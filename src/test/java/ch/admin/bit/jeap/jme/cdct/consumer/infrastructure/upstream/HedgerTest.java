@@ -0,0 +1,83 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class HedgerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final CountDownLatch releaseFirstAttempt = new CountDownLatch(1);
+
+    @Test
+    void call_whenFirstAttemptIsSlow_thenSecondAttemptWins() {
+        Hedger hedger = hedger(100);
+
+        String result = hedger.call(this::slowFirstAttempt);
+        releaseFirstAttempt.countDown();
+
+        assertThat(result).isEqualTo("attempt-2");
+        assertThat(attempts).hasValue(2);
+        assertThat(counter("gateway.hedge.sent")).isEqualTo(1);
+        assertThat(counter("gateway.hedge.won")).isEqualTo(1);
+    }
+
+    @Test
+    void call_whenBudgetIsExhausted_thenSlowAttemptIsAwaited() {
+        Hedger hedger = hedger(0);
+
+        Thread.ofVirtual().start(() -> {
+            sleep(Duration.ofMillis(100));
+            releaseFirstAttempt.countDown();
+        });
+        String result = hedger.call(this::slowFirstAttempt);
+
+        assertThat(result).isEqualTo("attempt-1");
+        assertThat(attempts).hasValue(1);
+        assertThat(counter("gateway.hedge.budget.exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    void call_whenAttemptFails_thenFailureIsPropagated() {
+        Hedger hedger = hedger(100);
+
+        assertThatIllegalStateException().isThrownBy(() -> hedger.call(() -> {
+            throw new IllegalStateException("upstream failed");
+        })).withMessage("upstream failed");
+    }
+
+    private Hedger hedger(double budget) {
+        return new Hedger("test", new HedgingProperties.Settings(true, 95, Duration.ofMillis(10), budget), meterRegistry);
+    }
+
+    private String slowFirstAttempt() {
+        int attempt = attempts.incrementAndGet();
+        if (attempt == 1) {
+            try {
+                releaseFirstAttempt.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return "attempt-" + attempt;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+}
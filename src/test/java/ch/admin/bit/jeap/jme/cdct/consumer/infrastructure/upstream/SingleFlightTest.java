@@ -0,0 +1,204 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String> singleFlight = new SingleFlight<>("test", true, meterRegistry);
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final AtomicInteger endedUpstreamCalls = new AtomicInteger();
+    private final CountDownLatch releaseUpstream = new CountDownLatch(1);
+
+    @Test
+    void execute_whenCallForSameKeyIsInFlight_thenCallersShareItsResult() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("1", this::blockingUpstreamCall)));
+            }
+            awaitCondition(() -> coalescedCount() == CALLERS - 1);
+            releaseUpstream.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo("result-1");
+            }
+        }
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void execute_whenCallFails_thenWaitingCallersReceiveTheSameException() throws Exception {
+        IllegalStateException failure = new IllegalStateException("upstream failed");
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> leader = executor.submit(() -> singleFlight.execute("1", () -> {
+                blockingUpstreamCall();
+                throw failure;
+            }));
+            awaitCondition(() -> upstreamCalls.get() == 1);
+            Future<?> follower = executor.submit(() -> singleFlight.execute("1", this::blockingUpstreamCall));
+            awaitCondition(() -> coalescedCount() == 1);
+            releaseUpstream.countDown();
+
+            assertThat(leader).failsWithin(Duration.ofSeconds(5)).withThrowableThat().havingCause().isSameAs(failure);
+            assertThat(follower).failsWithin(Duration.ofSeconds(5)).withThrowableThat().havingCause().isSameAs(failure);
+        }
+    }
+
+    @Test
+    void execute_whenDeadlineOfWaitingCallerPasses_thenOnlyThatCallerGivesUp() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("1", this::blockingUpstreamCall));
+            awaitCondition(() -> upstreamCalls.get() == 1);
+            Future<String> follower = executor.submit(() -> {
+                try (Deadline.Binding ignored = Deadline.after(Duration.ofMillis(50)).bind()) {
+                    return singleFlight.execute("1", this::blockingUpstreamCall);
+                }
+            });
+
+            assertThat(follower).failsWithin(Duration.ofSeconds(5)).withThrowableThat()
+                    .havingCause().isInstanceOf(DeadlineExceededException.class);
+            releaseUpstream.countDown();
+            assertThat(leader.get()).isEqualTo("result-1");
+        }
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void execute_whenDeadlineOfCallerStartingTheCallPasses_thenWaitingCallersStillGetTheResult() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> {
+                try (Deadline.Binding ignored = Deadline.after(Duration.ofMillis(50)).bind()) {
+                    return singleFlight.execute("1", this::blockingUpstreamCall);
+                }
+            });
+            awaitCondition(() -> upstreamCalls.get() == 1);
+            Future<String> follower = executor.submit(() -> singleFlight.execute("1", this::blockingUpstreamCall));
+            awaitCondition(() -> coalescedCount() == 1);
+
+            assertThat(leader).failsWithin(Duration.ofSeconds(5)).withThrowableThat()
+                    .havingCause().isInstanceOf(DeadlineExceededException.class);
+            releaseUpstream.countDown();
+            assertThat(follower.get()).isEqualTo("result-1");
+        }
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void execute_whenDeadlinesOfAllCallersPass_thenSharedCallIsCutOffByTheDeadline() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                results.add(executor.submit(() -> {
+                    try (Deadline.Binding ignored = Deadline.after(Duration.ofMillis(100)).bind()) {
+                        return singleFlight.execute("1", this::deadlineAwareUpstreamCall);
+                    }
+                }));
+            }
+
+            for (Future<String> result : results) {
+                assertThat(result).failsWithin(Duration.ofSeconds(5)).withThrowableThat()
+                        .havingCause().isInstanceOf(DeadlineExceededException.class);
+            }
+            awaitCondition(() -> endedUpstreamCalls.get() == 1);
+        }
+        assertThat(coalescedCount()).isEqualTo(1);
+        releaseUpstream.countDown();
+        assertThat(singleFlight.execute("1", this::blockingUpstreamCall)).isEqualTo("result-2");
+    }
+
+    @Test
+    void execute_whenDeadlineOfCallerStartingTheCallCutsItOff_thenWaitingCallerWithoutDeadlineCallsAgain() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> {
+                try (Deadline.Binding ignored = Deadline.after(Duration.ofMillis(50)).bind()) {
+                    return singleFlight.execute("1", this::deadlineAwareUpstreamCall);
+                }
+            });
+            awaitCondition(() -> upstreamCalls.get() == 1);
+            Future<String> follower = executor.submit(() -> singleFlight.execute("1", this::deadlineAwareUpstreamCall));
+
+            assertThat(leader).failsWithin(Duration.ofSeconds(5)).withThrowableThat()
+                    .havingCause().isInstanceOf(DeadlineExceededException.class);
+            awaitCondition(() -> upstreamCalls.get() == 2);
+            releaseUpstream.countDown();
+            assertThat(follower.get()).isEqualTo("result-2");
+        }
+    }
+
+    @Test
+    void execute_whenCallIsCompleted_thenNextCallerCallsUpstreamAgain() {
+        releaseUpstream.countDown();
+
+        singleFlight.execute("1", this::blockingUpstreamCall);
+        String result = singleFlight.execute("1", this::blockingUpstreamCall);
+
+        assertThat(result).isEqualTo("result-2");
+        assertThatIllegalStateException().isThrownBy(() -> singleFlight.execute("2", () -> {
+            throw new IllegalStateException();
+        }));
+        assertThat(coalescedCount()).isZero();
+    }
+
+    private String blockingUpstreamCall() {
+        int call = upstreamCalls.incrementAndGet();
+        try {
+            releaseUpstream.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "result-" + call;
+    }
+
+    /**
+     * Waits for the release of the upstream at most until the deadline bound to the call has passed, like the upstream
+     * clients do.
+     */
+    private String deadlineAwareUpstreamCall() {
+        int call = upstreamCalls.incrementAndGet();
+        try {
+            Optional<Deadline> deadline = Deadline.current();
+            if (deadline.isPresent()) {
+                releaseUpstream.await(deadline.get().remaining().toNanos(), TimeUnit.NANOSECONDS);
+                deadline.get().check();
+            } else {
+                releaseUpstream.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            endedUpstreamCalls.incrementAndGet();
+        }
+        return "result-" + call;
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private double coalescedCount() {
+        return meterRegistry.get("gateway.upstream.coalesced").counter().count();
+    }
+}
@@ -0,0 +1,141 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.upstream.Deadline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.tuple;
+
+class BatchLookupTest {
+
+    private final BatchLookup batchLookup = new BatchLookup(new BatchProperties(5, 2, Duration.ofMillis(500)));
+
+    @AfterEach
+    void shutdown() {
+        batchLookup.destroy();
+    }
+
+    @Test
+    void lookup_reportsResultPerIdInRequestOrder() {
+        List<BatchEntry<String>> entries = batchLookup.lookup(List.of("1", "2", "3", "1"), id -> switch (id) {
+            case "1" -> "task-1";
+            case "2" -> null;
+            default -> throw new IllegalStateException("upstream failed");
+        });
+
+        assertThat(entries).extracting(BatchEntry::id, BatchEntry::status).containsExactly(
+                tuple("1", BatchEntry.Status.FOUND),
+                tuple("2", BatchEntry.Status.NOT_FOUND),
+                tuple("3", BatchEntry.Status.FAILED));
+        assertThat(entries.getFirst().value()).isEqualTo("task-1");
+    }
+
+    @Test
+    void lookup_runsAtMostMaxConcurrencyLookupsAtOnce() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        batchLookup.lookup(List.of("1", "2", "3", "4", "5"), id -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(Duration.ofMillis(20));
+            running.decrementAndGet();
+            return id;
+        });
+
+        assertThat(maxRunning).hasValueLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void lookup_whenDeadlineIsReached_thenPendingLookupsTimeOut() {
+        List<BatchEntry<String>> entries = batchLookup.lookup(List.of("fast", "slow"), id -> {
+            if (id.equals("slow")) {
+                sleep(Duration.ofSeconds(5));
+            }
+            return id;
+        });
+
+        assertThat(entries).extracting(BatchEntry::status)
+                .containsExactly(BatchEntry.Status.FOUND, BatchEntry.Status.TIMED_OUT);
+    }
+
+    @Test
+    void lookup_runsLookupsWithTheBatchDeadlineAndDoesNotInterruptThem() throws InterruptedException {
+        CountDownLatch lookupEnded = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicReference<Duration> remaining = new AtomicReference<>();
+
+        List<BatchEntry<String>> entries;
+        try (Deadline.Binding ignored = Deadline.after(Duration.ofMillis(100)).bind()) {
+            entries = batchLookup.lookup(List.of("slow"), id -> {
+                remaining.set(Deadline.current().orElseThrow().remaining());
+                try {
+                    Thread.sleep(Duration.ofMillis(300));
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+                lookupEnded.countDown();
+                return id;
+            });
+        }
+
+        assertThat(entries).extracting(BatchEntry::status).containsExactly(BatchEntry.Status.TIMED_OUT);
+        assertThat(lookupEnded.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(interrupted).isFalse();
+        assertThat(remaining.get()).isLessThanOrEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    void lookup_whenSlowLookupsTimeOut_thenTheyReleaseTheirSlotsByTheDeadline() throws InterruptedException {
+        CountDownLatch neverReleased = new CountDownLatch(1);
+        CountDownLatch slotsReleased = new CountDownLatch(2);
+        long start = System.nanoTime();
+
+        List<BatchEntry<String>> entries = batchLookup.lookup(List.of("1", "2"), id -> {
+            try {
+                Deadline deadline = Deadline.current().orElseThrow();
+                // a slow upstream whose response timeout is cut to the deadline, like the upstream clients do
+                neverReleased.await(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+                deadline.check();
+                return id;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return id;
+            } finally {
+                slotsReleased.countDown();
+            }
+        });
+
+        assertThat(entries).extracting(BatchEntry::status)
+                .containsExactly(BatchEntry.Status.TIMED_OUT, BatchEntry.Status.TIMED_OUT);
+        assertThat(slotsReleased.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void lookup_whenBatchIsEmptyOrTooLarge_thenRejectsIt() {
+        assertThatExceptionOfType(ResponseStatusException.class)
+                .isThrownBy(() -> batchLookup.lookup(Collections.emptyList(), id -> id));
+        assertThatExceptionOfType(ResponseStatusException.class)
+                .isThrownBy(() -> batchLookup.lookup(List.of("1", "2", "3", "4", "5", "6"), id -> id));
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.Task;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EncodedCollectionCacheTest {
+
+    private final EncodedCollectionCache cache = new EncodedCollectionCache(
+            new ResponseCacheProperties(true, true, DataSize.ofBytes(100), DataSize.ofMegabytes(1)), JsonMapper.builder().build());
+    private final Projection<Task> allFields = Projections.TASK.forFields(null);
+
+    @Test
+    void respond_whenSameCollectionIsRequestedAgain_thenEncodedBytesAreReused() {
+        List<Task> collection = List.of(task("1"));
+
+        ResponseEntity<byte[]> first = cache.respond(collection, allFields, new MockHttpServletRequest());
+        ResponseEntity<byte[]> second = cache.respond(collection, allFields, new MockHttpServletRequest());
+
+        assertThat(new String(first.getBody(), UTF_8)).isEqualTo("[{\"id\":\"1\",\"title\":\"T1\",\"content\":\"C1\"}]");
+        assertThat(second.getBody()).isSameAs(first.getBody());
+        assertThat(second.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag()).isNotNull();
+    }
+
+    @Test
+    void respond_whenEqualCollectionIsAnotherInstance_thenItIsEncodedAgainWithTheSameETag() {
+        ResponseEntity<byte[]> first = cache.respond(new ArrayList<>(List.of(task("1"))), allFields,
+                new MockHttpServletRequest());
+        ResponseEntity<byte[]> second = cache.respond(new ArrayList<>(List.of(task("1"))), allFields,
+                new MockHttpServletRequest());
+
+        assertThat(second.getBody()).isNotSameAs(first.getBody()).isEqualTo(first.getBody());
+        assertThat(second.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag());
+    }
+
+    @Test
+    void respond_whenCollectionChanged_thenItIsEncodedAgain() {
+        ResponseEntity<byte[]> first = cache.respond(List.of(task("1")), allFields, new MockHttpServletRequest());
+        ResponseEntity<byte[]> second = cache.respond(List.of(task("1"), task("2")), allFields,
+                new MockHttpServletRequest());
+
+        assertThat(second.getHeaders().getETag()).isNotEqualTo(first.getHeaders().getETag());
+    }
+
+    @Test
+    void respond_whenCallerPrefersBinaryEncoding_thenCollectionIsEncodedInIt() {
+        List<Task> collection = List.of(task("1"));
+        MockHttpServletRequest cborRequest = new MockHttpServletRequest();
+        cborRequest.addHeader(HttpHeaders.ACCEPT, "application/cbor, application/json;q=0.5");
+        MockHttpServletRequest anyRequest = new MockHttpServletRequest();
+        anyRequest.addHeader(HttpHeaders.ACCEPT, "*/*");
+
+        ResponseEntity<byte[]> cbor = cache.respond(collection, allFields, cborRequest);
+        ResponseEntity<byte[]> any = cache.respond(collection, allFields, anyRequest);
+
+        assertThat(cbor.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(CBORMapper.builder().build().readValue(cbor.getBody(), List.class))
+                .containsExactly(Map.of("id", "1", "title", "T1", "content", "C1"));
+        assertThat(cbor.getHeaders().getETag()).isNotEqualTo(any.getHeaders().getETag());
+        assertThat(any.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(cbor.getHeaders().getVary()).contains(HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    void respond_whenCallerAcceptsGzip_thenCompressedBytesAreReturned() throws IOException {
+        List<Task> collection = Collections.nCopies(50, task("1"));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8");
+
+        ResponseEntity<byte[]> plain = cache.respond(collection, allFields, new MockHttpServletRequest());
+        ResponseEntity<byte[]> compressed = cache.respond(collection, allFields, request);
+        ResponseEntity<byte[]> compressedAgain = cache.respond(collection, allFields, request);
+
+        assertThat(compressed.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(compressed.getHeaders().getETag()).isNotEqualTo(plain.getHeaders().getETag());
+        assertThat(compressedAgain.getBody()).isSameAs(compressed.getBody());
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressed.getBody()))) {
+            assertThat(inputStream.readAllBytes()).isEqualTo(plain.getBody());
+        }
+    }
+
+    @Test
+    void respond_whenResponseIsSmallOrGzipIsRefused_thenPlainBytesAreReturned() {
+        MockHttpServletRequest refusingRequest = new MockHttpServletRequest();
+        refusingRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0");
+        MockHttpServletRequest acceptingRequest = new MockHttpServletRequest();
+        acceptingRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        ResponseEntity<byte[]> refused = cache.respond(Collections.nCopies(50, task("1")), allFields, refusingRequest);
+        ResponseEntity<byte[]> small = cache.respond(List.of(task("1")), allFields, acceptingRequest);
+
+        assertThat(refused.getHeaders().containsHeader(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(small.getHeaders().containsHeader(HttpHeaders.CONTENT_ENCODING)).isFalse();
+    }
+
+    private static Task task(String id) {
+        return new Task(id, "T" + id, "C" + id);
+    }
+}
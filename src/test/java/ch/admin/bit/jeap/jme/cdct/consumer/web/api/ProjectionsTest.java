@@ -0,0 +1,54 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.Task;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class ProjectionsTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    @Test
+    void forFields_writesOnlyTheRequestedFieldsInDeclarationOrder() {
+        Projection<Task> projection = Projections.TASK.forFields(List.of("title", "id"));
+
+        String json = objectMapper.writeValueAsString(projection.projectAll(List.of(task("1"), task("2"))));
+
+        assertThat(json).isEqualTo("[{\"id\":\"1\",\"title\":\"Title 1\"},{\"id\":\"2\",\"title\":\"Title 2\"}]");
+    }
+
+    @Test
+    void forFields_whenSameFieldSetIsRequestedAgain_thenCompiledProjectionIsReused() {
+        Projection<Task> projection = Projections.TASK.forFields(List.of("id", "content"));
+
+        assertThat(Projections.TASK.forFields(List.of("content", "id", "content"))).isSameAs(projection);
+        assertThat(Projections.TASK.forFields(List.of("id"))).isNotSameAs(projection);
+    }
+
+    @Test
+    void forFields_whenNoOrAllFieldsAreRequested_thenResourcesAreLeftAsTheyAre() {
+        Task task = task("1");
+
+        assertThat(Projections.TASK.forFields(null).project(task)).isSameAs(task);
+        assertThat(Projections.TASK.forFields(List.of("id", "title", "content")).project(task)).isSameAs(task);
+    }
+
+    @Test
+    void forFields_whenFieldIsUnknown_thenRespondsBadRequest() {
+        assertThatExceptionOfType(ResponseStatusException.class)
+                .isThrownBy(() -> Projections.TASK.forFields(List.of("id", "tag")))
+                .satisfies(e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    private static Task task(String id) {
+        return new Task(id, "Title " + id, "Content " + id);
+    }
+}
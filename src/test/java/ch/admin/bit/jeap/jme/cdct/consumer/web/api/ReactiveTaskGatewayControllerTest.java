@@ -0,0 +1,23 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+class ReactiveTaskGatewayControllerTest {
+
+    private final WebTestClient webTestClient = WebTestClient
+            .bindToController(new ReactiveTaskGatewayController(null, null, null, null))
+            .build();
+
+    @Test
+    void getTasks_whenBatchLookupIsPaged_thenRespondsBadRequest() {
+        webTestClient.get().uri("/api/task?ids=1,2&limit=1").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/task?ids=1,2&cursor=abc").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getTasks_whenBatchLookupOrPageIsStreamed_thenRespondsBadRequest() {
+        webTestClient.get().uri("/api/task?ids=1,2&stream=true").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/task?limit=1&stream=true").exchange().expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,75 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class SnapshotPagingTest {
+
+    private final SnapshotPaging snapshotPaging = new SnapshotPaging(new PagingProperties(10, Duration.ofMinutes(1)));
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final Supplier<List<String>> collection = () -> {
+        fetches.incrementAndGet();
+        return List.of("a", "b", "c", "d", "e");
+    };
+
+    @Test
+    void page_servesFollowingPagesFromTheSnapshotOfTheFirstPage() {
+        Page<String> first = snapshotPaging.page("task", null, 2, collection);
+        Page<String> second = snapshotPaging.page("task", first.nextCursor(), 2, collection);
+        Page<String> last = snapshotPaging.page("task", second.nextCursor(), 2, collection);
+
+        assertThat(first.items()).containsExactly("a", "b");
+        assertThat(second.items()).containsExactly("c", "d");
+        assertThat(last.items()).containsExactly("e");
+        assertThat(last.nextCursor()).isNull();
+        assertThat(fetches).hasValue(1);
+    }
+
+    @Test
+    void page_whenCollectionIsUnchanged_thenCallersShareOneSnapshot() {
+        Page<String> first = snapshotPaging.page("task", null, 2, collection);
+        Page<String> other = snapshotPaging.page("task", null, 2, collection);
+        Page<String> changed = snapshotPaging.page("task", null, 2, () -> List.of("a", "b", "x"));
+
+        assertThat(other.nextCursor()).isEqualTo(first.nextCursor());
+        assertThat(changed.nextCursor()).isNotEqualTo(first.nextCursor());
+        assertThat(snapshotPaging.page("task", first.nextCursor(), 2, collection).items()).containsExactly("c", "d");
+        assertThat(snapshotPaging.page("task", changed.nextCursor(), 2, collection).items()).containsExactly("x");
+    }
+
+    @Test
+    void page_whenCursorIsUnknown_thenRespondsGone() {
+        Page<String> first = new SnapshotPaging(new PagingProperties(10, Duration.ofMinutes(1))).page("task", null, 2, collection);
+
+        assertThatExceptionOfType(ResponseStatusException.class)
+                .isThrownBy(() -> snapshotPaging.page("task", first.nextCursor(), 2, collection))
+                .extracting(ResponseStatusException::getStatusCode).isEqualTo(HttpStatus.GONE);
+    }
+
+    @Test
+    void page_whenCursorBelongsToOtherCollectionOrIsMalformed_thenRespondsBadRequest() {
+        Page<String> first = snapshotPaging.page("task", null, 2, collection);
+
+        assertThatExceptionOfType(ResponseStatusException.class)
+                .isThrownBy(() -> snapshotPaging.page("user", first.nextCursor(), 2, collection))
+                .extracting(ResponseStatusException::getStatusCode).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThatExceptionOfType(ResponseStatusException.class)
+                .isThrownBy(() -> snapshotPaging.page("task", "not-a-cursor", 2, collection))
+                .extracting(ResponseStatusException::getStatusCode).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void page_whenLimitIsOutOfRange_thenRespondsBadRequest() {
+        assertThatExceptionOfType(ResponseStatusException.class)
+                .isThrownBy(() -> snapshotPaging.page("task", null, 11, collection));
+    }
+}
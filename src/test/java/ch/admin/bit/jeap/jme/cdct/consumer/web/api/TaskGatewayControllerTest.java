@@ -0,0 +1,27 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TaskGatewayControllerTest {
+
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new TaskGatewayController(null, null, null, null, null))
+            .build();
+
+    @Test
+    void getTasks_whenBatchLookupIsStreamed_thenRespondsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/task").param("ids", "1,2").param("stream", "true"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getTaskPage_whenPageIsStreamed_thenRespondsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/task").param("limit", "1").param("stream", "true"))
+                .andExpect(status().isBadRequest());
+    }
+}
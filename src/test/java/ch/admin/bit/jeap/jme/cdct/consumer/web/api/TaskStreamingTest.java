@@ -0,0 +1,117 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api;
+
+import ch.admin.bit.jeap.security.test.client.configuration.JeapOAuth2IntegrationTestClientConfiguration;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Streams a task collection several times the size of the heap from a stub provider through the gateway to a caller.
+ * Runs in its own surefire execution with a small heap (see pom.xml): the collection only fits if every element is
+ * passed on from the provider's response to the gateway's response on its own.
+ */
+@Tag("low-memory-streaming")
+@Import(JeapOAuth2IntegrationTestClientConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class TaskStreamingTest {
+
+    private static final int TASKS = 5_000_000;
+    private static final String CONTENT = "x".repeat(64);
+    private static final HttpServer PROVIDER = startProvider();
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @DynamicPropertySource
+    static void providerUrls(DynamicPropertyRegistry registry) {
+        String baseUrl = "http://localhost:" + PROVIDER.getAddress().getPort();
+        registry.add("task-api-url", () -> baseUrl + "/api/task");
+        registry.add("user-api-url", () -> baseUrl + "/api/user");
+    }
+
+    @AfterAll
+    static void stopProvider() {
+        PROVIDER.stop(0);
+    }
+
+    @Test
+    void streamAllTasks_streamsTheCollectionWithConstantMemory() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(
+                        "http://localhost:" + port + "/jme-cdct-segregated-consumer-service/api/task?stream=true"))
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE)
+                .build();
+        long lines = 0;
+        long bytes = 0;
+
+        try (HttpClient httpClient = HttpClient.newHttpClient()) {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            assertThat(response.statusCode()).isEqualTo(200);
+            try (InputStream body = response.body()) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    bytes += read;
+                    for (int i = 0; i < read; i++) {
+                        if (buffer[i] == '\n') {
+                            lines++;
+                        }
+                    }
+                }
+            }
+        }
+
+        assertThat(lines).isGreaterThanOrEqualTo(TASKS - 1);
+        assertThat(bytes).isGreaterThan(500_000_000L);
+    }
+
+    private static HttpServer startProvider() {
+        try {
+            HttpServer provider = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            provider.createContext("/api/task", TaskStreamingTest::writeTasks);
+            provider.start();
+            return provider;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes the task array element by element, without ever holding more than one element in memory.
+     */
+    private static void writeTasks(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = new BufferedOutputStream(exchange.getResponseBody(), 64 * 1024)) {
+            body.write('[');
+            for (int i = 0; i < TASKS; i++) {
+                String separator = i == 0 ? "" : ",";
+                body.write((separator + "{\"id\":\"" + i + "\",\"title\":\"title-" + i + "\",\"content\":\"" + CONTENT +
+                        "\"}").getBytes(UTF_8));
+            }
+            body.write(']');
+        }
+    }
+}
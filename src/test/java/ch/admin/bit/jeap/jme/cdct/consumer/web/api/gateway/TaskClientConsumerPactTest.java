@@ -7,8 +7,10 @@ import au.com.dius.pact.consumer.junit5.PactTestFor;
 import au.com.dius.pact.core.model.PactSpecVersion;
 import au.com.dius.pact.core.model.V4Pact;
 import au.com.dius.pact.core.model.annotations.Pact;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.ReactiveTaskClient;
 import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.Task;
 import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.TaskClient;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.task.TaskNotFoundException;
 import ch.admin.bit.jeap.security.resource.semanticAuthentication.SemanticApplicationRole;
 import ch.admin.bit.jeap.security.resource.token.JeapAuthenticationContext;
 import ch.admin.bit.jeap.security.test.client.MockJeapOAuth2RestClientBuilderFactory;
@@ -39,7 +41,7 @@ import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 @PactConsumerTest
 @PactTestFor(pactVersion = PactSpecVersion.V4)
 @MockServerConfig(hostInterface = "localhost", port = "8888")
-@Import(JeapOAuth2IntegrationTestClientConfiguration.class)
+@Import({JeapOAuth2IntegrationTestClientConfiguration.class, TestAuthorizedClientManagerConfiguration.class})
 @SpringBootTest(properties = {
         "task-api-url=http://localhost:8888/jme-cdct-segregated-provider-service/api/task",
         "user-api-url=http://localhost:8888/jme-cdct-segregated-provider-service/api/user"
@@ -58,6 +60,7 @@ class TaskClientConsumerPactTest {
     private static final String CONTENT_FIELD_NAME = "content";
 
     private static final String ID_EXAMPLE_VALUE = "123456789";
+    private static final String MISSING_ID_EXAMPLE_VALUE = "42";
     private static final String TITLE_EXAMPLE_VALUE = "test-title";
     private static final String CONTENT_EXAMPLE_VALUE = "test-content";
 
@@ -66,9 +69,15 @@ class TaskClientConsumerPactTest {
     @Autowired
     private TaskClient taskClient;
 
+    @Autowired
+    private ReactiveTaskClient reactiveTaskClient;
+
     @Autowired
     private MockJeapOAuth2RestClientBuilderFactory mockRestClientBuilderFactory;
 
+    @Autowired
+    private TestAuthorizedClientManagerConfiguration.TestAuthorizedClientManager reactiveAuthorizedClientManager;
+
     private String taskReadToken;
     private String unrelatedRoleToken;
 
@@ -241,6 +250,32 @@ class TaskClientConsumerPactTest {
     }
 
 
+    // The following interaction specification defines how a request for a task that does not exist is expected to be handled.
+    @Pact(provider = PROVIDER, consumer = CONSUMER)
+    private V4Pact requestTaskWithTaskNotBeingPresentInteraction(PactBuilder builder) {
+        final String path = API_PATH + "/" + MISSING_ID_EXAMPLE_VALUE;
+        return builder.
+                given("No task with task id '" + MISSING_ID_EXAMPLE_VALUE + "' is present").
+                expectsToReceiveHttpInteraction("A GET request to " + path + " for a missing task", httpInteractionBuilder -> httpInteractionBuilder.
+                        withRequest(httpRequestBuilder -> httpRequestBuilder.
+                                header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE).
+                                header(HttpHeaders.AUTHORIZATION, "Bearer " + taskReadToken).
+                                method("GET").
+                                path(path)).
+                        willRespondWith(httpResponseBuilder -> httpResponseBuilder.
+                                status(404))).
+                toPact();
+    }
+
+    @Test
+    @PactTestFor(pactMethod = "requestTaskWithTaskNotBeingPresentInteraction")
+    void testGetTaskByIdWithTaskNotBeingPresent() {
+        mockRestClientBuilderFactory.getAuthTokenProvider().setAuthToken(taskReadToken);
+
+        assertThatExceptionOfType(TaskNotFoundException.class).isThrownBy(() -> taskClient.getTaskById(MISSING_ID_EXAMPLE_VALUE));
+    }
+
+
     // This interaction specification gives an example of the Pact DSL for the case that the provider response is
     // an array instead of a JSON object as in the previous specifications.
     @Pact(provider = PROVIDER, consumer = CONSUMER)
@@ -280,14 +315,46 @@ class TaskClientConsumerPactTest {
         );
     }
 
+    // The reactive task client complies with the same pact as the blocking one, the interactions are reused.
+    @Test
+    @PactTestFor(pactMethod = "requestTaskWithFixedIdTaskBeingPresentInteraction")
+    void testReactiveGetTaskByIdWithFixedIdTaskBeingPresent() {
+        reactiveAuthorizedClientManager.setAuthToken(taskReadToken);
+
+        Task result = reactiveTaskClient.getTaskById("1").block();
+
+        assertTaskValues(result, "1", TITLE_EXAMPLE_VALUE, CONTENT_EXAMPLE_VALUE);
+    }
+
+    @Test
+    @PactTestFor(pactMethod = "requestTaskWithInsufficientAuthorizationInteraction")
+    void testReactiveGetTaskInsufficientAuthorization() {
+        reactiveAuthorizedClientManager.setAuthToken(unrelatedRoleToken);
+
+        assertThatExceptionOfType(AuthenticationException.class).isThrownBy(() -> reactiveTaskClient.getTaskById("1").block());
+    }
+
+    @Test
+    @PactTestFor(pactMethod = "requestTasksWithTasksBeingPresentInteraction")
+    void testReactiveGetAllTasksWithTasksBeingPresent() {
+        reactiveAuthorizedClientManager.setAuthToken(taskReadToken);
+
+        List<Task> tasks = reactiveTaskClient.getAllTasks().collectList().block();
+
+        assertThat(tasks).hasSize(2);
+        tasks.forEach(
+                task -> assertTaskValues(task, ID_EXAMPLE_VALUE, TITLE_EXAMPLE_VALUE, CONTENT_EXAMPLE_VALUE)
+        );
+    }
+
     // Additional interactions should be specified here...
 
 
     @SuppressWarnings("SameParameterValue")
     private void assertTaskValues(Task task, String id, String title, String content) {
-        assertThat(task.getId()).isEqualTo(id);
-        assertThat(task.getTitle()).isEqualTo(title);
-        assertThat(task.getContent()).isEqualTo(content);
+        assertThat(task.id()).isEqualTo(id);
+        assertThat(task.title()).isEqualTo(title);
+        assertThat(task.content()).isEqualTo(content);
     }
 
 }
@@ -0,0 +1,53 @@
+package ch.admin.bit.jeap.jme.cdct.consumer.web.api.gateway;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.ReactiveOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands the web clients the token set by the test, the reactive counterpart of the jEAP mock rest client builder
+ * factory's token provider.
+ */
+@TestConfiguration
+class TestAuthorizedClientManagerConfiguration {
+
+    @Bean
+    TestAuthorizedClientManager upstreamAuthorizedClientManager() {
+        return new TestAuthorizedClientManager();
+    }
+
+    static class TestAuthorizedClientManager implements ReactiveOAuth2AuthorizedClientManager {
+
+        private final AtomicReference<String> authToken = new AtomicReference<>();
+
+        void setAuthToken(String token) {
+            authToken.set(token);
+        }
+
+        @Override
+        public Mono<OAuth2AuthorizedClient> authorize(OAuth2AuthorizeRequest authorizeRequest) {
+            return Mono.fromSupplier(() -> {
+                ClientRegistration clientRegistration = ClientRegistration
+                        .withRegistrationId(authorizeRequest.getClientRegistrationId())
+                        .clientId("test")
+                        .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                        .tokenUri("http://localhost/token")
+                        .build();
+                Instant issuedAt = Instant.now();
+                OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+                        authToken.get(), issuedAt, issuedAt.plus(Duration.ofHours(1)));
+                return new OAuth2AuthorizedClient(clientRegistration, authorizeRequest.getPrincipal().getName(), accessToken);
+            });
+        }
+    }
+}
@@ -8,8 +8,10 @@ import au.com.dius.pact.consumer.junit5.PactTestFor;
 import au.com.dius.pact.core.model.PactSpecVersion;
 import au.com.dius.pact.core.model.V4Pact;
 import au.com.dius.pact.core.model.annotations.Pact;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user.ReactiveUserClient;
 import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user.User;
 import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user.UserClient;
+import ch.admin.bit.jeap.jme.cdct.consumer.infrastructure.user.UserNotFoundException;
 import ch.admin.bit.jeap.security.resource.semanticAuthentication.SemanticApplicationRole;
 import ch.admin.bit.jeap.security.resource.token.JeapAuthenticationContext;
 import ch.admin.bit.jeap.security.test.client.MockJeapOAuth2RestClientBuilderFactory;
@@ -41,7 +43,7 @@ import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 @PactConsumerTest
 @PactTestFor(pactVersion = PactSpecVersion.V4)
 @MockServerConfig(hostInterface = "localhost", port = "8888")
-@Import(JeapOAuth2IntegrationTestClientConfiguration.class)
+@Import({JeapOAuth2IntegrationTestClientConfiguration.class, TestAuthorizedClientManagerConfiguration.class})
 @SpringBootTest(properties = {
         "task-api-url=http://localhost:8888/jme-cdct-segregated-provider-service/api/task",
         "user-api-url=http://localhost:8888/jme-cdct-segregated-provider-service/api/user"
@@ -59,6 +61,7 @@ class UserClientConsumerPactTest {
     private static final String NAME_FIELD_NAME = "name";
 
     private static final String ID_EXAMPLE_VALUE = "3423489";
+    private static final String MISSING_ID_EXAMPLE_VALUE = "42";
     private static final String NAME_EXAMPLE_VALUE = "test-name";
 
     private static final String USER_ID_PARAM_NAME = "user-id";
@@ -66,9 +69,15 @@ class UserClientConsumerPactTest {
     @Autowired
     private UserClient userClient;
 
+    @Autowired
+    private ReactiveUserClient reactiveUserClient;
+
     @Autowired
     private MockJeapOAuth2RestClientBuilderFactory mockRestClientBuilderFactory;
 
+    @Autowired
+    private TestAuthorizedClientManagerConfiguration.TestAuthorizedClientManager reactiveAuthorizedClientManager;
+
     private String userReadToken;
     private String unrelatedRoleToken;
 
@@ -234,6 +243,31 @@ class UserClientConsumerPactTest {
     }
 
 
+    // The following interaction specification defines how a request for a user that does not exist is expected to be handled.
+    @Pact(provider = PROVIDER, consumer = CONSUMER)
+    private V4Pact requestUserWithUserNotBeingPresentInteraction(PactBuilder builder) {
+        final String path = API_PATH + "/" + MISSING_ID_EXAMPLE_VALUE;
+        return builder.given("No user with user id '" + MISSING_ID_EXAMPLE_VALUE + "' is present").
+                expectsToReceiveHttpInteraction("A GET request to " + path + " for a missing user", httpInteractionBuilder -> httpInteractionBuilder.
+                        withRequest(httpRequestBuilder -> httpRequestBuilder.
+                                header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE).
+                                header(HttpHeaders.AUTHORIZATION, "Bearer " + userReadToken).
+                                method("GET").
+                                path(path)).
+                        willRespondWith(httpResponseBuilder -> httpResponseBuilder.
+                                status(404))).
+                toPact();
+    }
+
+    @Test
+    @PactTestFor(pactMethod = "requestUserWithUserNotBeingPresentInteraction")
+    void testGetUserByIdWithUserNotBeingPresent() {
+        mockRestClientBuilderFactory.getAuthTokenProvider().setAuthToken(userReadToken);
+
+        assertThatExceptionOfType(UserNotFoundException.class).isThrownBy(() -> userClient.getUserById(MISSING_ID_EXAMPLE_VALUE));
+    }
+
+
     // This interaction specification gives an example of the Pact DSL for the case that the provider response is
     // an array instead of a JSON object as in the previous specifications.
     @Pact(provider = PROVIDER, consumer = CONSUMER)
@@ -271,13 +305,45 @@ class UserClientConsumerPactTest {
         );
     }
 
+    // The reactive user client complies with the same pact as the blocking one, the interactions are reused.
+    @Test
+    @PactTestFor(pactMethod = "requestUserWithFixedIdUserBeingPresentInteraction")
+    void testReactiveGetUserByIdWithFixedIdUserBeingPresent() {
+        reactiveAuthorizedClientManager.setAuthToken(userReadToken);
+
+        User result = reactiveUserClient.getUserById("1").block();
+
+        assertUserValues(result, "1", NAME_EXAMPLE_VALUE);
+    }
+
+    @Test
+    @PactTestFor(pactMethod = "requestUserWithInsufficientAuthorizationInteraction")
+    void testReactiveGetUserInsufficientAuthorization() {
+        reactiveAuthorizedClientManager.setAuthToken(unrelatedRoleToken);
+
+        assertThatExceptionOfType(AuthenticationException.class).isThrownBy(() -> reactiveUserClient.getUserById("1").block());
+    }
+
+    @Test
+    @PactTestFor(pactMethod = "requestUsersWithUsersBeingPresentInteraction")
+    void testReactiveGetAllUsersWithUsersBeingPresent() {
+        reactiveAuthorizedClientManager.setAuthToken(userReadToken);
+
+        List<User> users = reactiveUserClient.getAllUsers().collectList().block();
+
+        assertThat(users).hasSize(2);
+        users.forEach(
+                user -> assertUserValues(user, ID_EXAMPLE_VALUE, NAME_EXAMPLE_VALUE)
+        );
+    }
+
     // Additional interactions should be specified here...
 
 
     @SuppressWarnings("SameParameterValue")
     private void assertUserValues(User user, String id, String name) {
-        assertThat(user.getId()).isEqualTo(id);
-        assertThat(user.getName()).isEqualTo(name);
+        assertThat(user.id()).isEqualTo(id);
+        assertThat(user.name()).isEqualTo(name);
     }
 
 }